@@ -0,0 +1,32 @@
+import java.util.ArrayList;
+
+// Decides which free block a job is placed in. The SimulationEngine tells the policy
+// whenever a block is taken or freed, so the policy can keep its own index of free
+// blocks and answer selectBlock() without scanning the whole block list.
+public interface AllocationPolicy {
+    String getName();                          // e.g. "First-Fit"
+    String getLoadTag();                       // appended to "loaded into Block N" log lines
+    String getWaitingReason();                 // shown in the log when a job cannot be placed
+
+    void init(ArrayList<MemoryBlock> blocks);  // called once from setup(), all blocks are free
+    int selectBlock(int memoryNeeded);         // index of the block to use, -1 if none fits
+    void blockUsed(int blockIndex);            // the selected block was loaded
+    void blockFreed(int blockIndex);           // a block's job finished
+    int largestFree();                         // largest free block size (an upper bound is fine), -1 if none
+
+    // Checkpoint support (see SimulationCheckpoint). A policy whose choices depend on more than
+    // which blocks are free (a rover, the order of a free list) returns that extra state here.
+    default int[] getCheckpointState() {
+        return new int[0];
+    }
+
+    // Rebuild the policy for blocks whose occupancy was restored from a checkpoint
+    default void restoreCheckpoint(ArrayList<MemoryBlock> blocks, int[] state) {
+        init(blocks);
+        for (int i = 0; i < blocks.size(); i++) {
+            if (!blocks.get(i).isEmpty) {
+                blockUsed(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// The built-in job table: [jobNumber, time, size] rows, one arrival per tick starting at tick 0,
+// or a batch of jobsPerTick rows arriving together every tick.
+public class ArrayJobSource implements JobSource {
+
+    public int[][] jobs;
+    public int position;
+    public int jobsPerTick;
+    public JobPool pool;           // null = allocate every job
+
+    public ArrayJobSource(int[][] jobs) {
+        this(jobs, 1);
+    }
+
+    public ArrayJobSource(int[][] jobs, int jobsPerTick) {
+        if (jobsPerTick < 1) {
+            throw new IllegalArgumentException("jobsPerTick must be at least 1, got " + jobsPerTick);
+        }
+        this.jobs = jobs;
+        this.position = 0;
+        this.jobsPerTick = jobsPerTick;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < jobs.length;
+    }
+
+    @Override
+    public int nextArrivalTime() {
+        return position / jobsPerTick;
+    }
+
+    @Override
+    public Job next() {
+        int[] row = jobs[position++];
+        return pool != null ? pool.acquire(row[0], row[1], row[2]) : new Job(row[0], row[1], row[2]);
+    }
+
+    @Override
+    public void setJobPool(JobPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void skip(long count) {
+        position = (int) Math.min(jobs.length, position + count);
+    }
+}
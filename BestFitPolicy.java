@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Best-Fit: the smallest free block that is big enough, ties going to the lowest index.
+// Blocks are ranked by (blockSize, blockIndex); the lowest free rank that fits is then the
+// best fit, so a first-fit search over the ranks finds it in O(log n).
+public class BestFitPolicy implements AllocationPolicy {
+
+    public ArrayList<MemoryBlock> blocks;
+    public FirstFitTree sizeTree;    // free sizes with blocks ranked by (blockSize, blockIndex)
+    public int[] blockAtRank;        // rank in sizeTree -> index in blocks
+    public int[] rankOfBlock;        // index in blocks -> rank in sizeTree
+
+    public String getName() { return "Best-Fit"; }
+    public String getLoadTag() { return " (BEST-FIT)"; }
+    public String getWaitingReason() { return "no suitable block available"; }
+
+    public void init(final ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        // Rank blocks smallest first; equal sizes fall back to list order, same as a linear scan
+        Integer[] order = new Integer[blocks.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                MemoryBlock b1 = blocks.get(i1);
+                MemoryBlock b2 = blocks.get(i2);
+                if (b1.blockSize != b2.blockSize) {
+                    return Integer.compare(b1.blockSize, b2.blockSize);
+                }
+                return Integer.compare(b1.blockIndex, b2.blockIndex);
+            }
+        });
+        blockAtRank = new int[order.length];
+        rankOfBlock = new int[order.length];
+        sizeTree = new FirstFitTree(order.length);
+        for (int rank = 0; rank < order.length; rank++) {
+            blockAtRank[rank] = order[rank];
+            rankOfBlock[order[rank]] = rank;
+            sizeTree.markFree(rank, blocks.get(order[rank]).blockSize);
+        }
+    }
+
+    public int selectBlock(int memoryNeeded) {
+        int rank = sizeTree.findFirst(memoryNeeded);
+        return rank >= 0 ? blockAtRank[rank] : -1;
+    }
+
+    public void blockUsed(int blockIndex) {
+        sizeTree.markUsed(rankOfBlock[blockIndex]);
+    }
+
+    public void blockFreed(int blockIndex) {
+        sizeTree.markFree(rankOfBlock[blockIndex], blocks.get(blockIndex).blockSize);
+    }
+
+    public int largestFree() {
+        return sizeTree.largestFree();
+    }
+}
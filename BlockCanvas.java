@@ -0,0 +1,249 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+// Draws the whole block table on one component, in a grid of cells that wraps to the
+// width of the scroll pane it sits in. Only the cells inside the visible clip are painted,
+// and when a new snapshot arrives only the cells whose job or progress changed are marked
+// dirty, so a frame costs about the same with 10 blocks or 100k.
+//
+// Zoom with the zoom methods or Ctrl + mouse wheel; below a certain cell size the text
+// is dropped and blocks are drawn as plain coloured cells.
+public class BlockCanvas extends JComponent implements Scrollable {
+
+    public static final int CELL_WIDTH = 120;    // cell size at zoom 1.0
+    public static final int CELL_HEIGHT = 80;
+    public static final int GAP = 10;
+    public static final double MIN_ZOOM = 0.05;
+    public static final double MAX_ZOOM = 2.0;
+
+    // Current state, one entry per block in block table order
+    public int[] blockNumbers = new int[0];
+    public int[] blockSizes = new int[0];
+    public int[] jobNumbers = new int[0];        // -1 if free
+    public int[] timeLeft = new int[0];
+    public int[] totalTime = new int[0];
+
+    public double zoom;
+    public int columns;                          // cells per row for the current width
+    public Color[] progressColors;               // red (just started) to green (almost done)
+    public Font font;
+
+    public BlockCanvas() {
+        zoom = 1.0;
+        columns = 5;
+        progressColors = new Color[256];
+        for (int i = 0; i < 256; i++) {
+            progressColors[i] = new Color(255 - i, i, 0);
+        }
+        font = new Font("SansSerif", Font.BOLD, 12);
+        setBackground(Color.LIGHT_GRAY);
+        setOpaque(true);
+
+        addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                setZoom(e.getWheelRotation() < 0 ? zoom * 1.25 : zoom / 1.25);
+            } else {
+                // plain wheel scrolls as usual
+                Container scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+                if (scrollPane != null) {
+                    scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+                }
+            }
+        });
+    }
+
+    // Show a block table with every block free (before a run starts)
+    public void setFreeBlocks(int[][] blocks) {
+        int n = blocks.length;
+        int[] numbers = new int[n];
+        int[] sizes = new int[n];
+        int[] jobs = new int[n];
+        for (int i = 0; i < n; i++) {
+            numbers[i] = blocks[i][0];
+            sizes[i] = blocks[i][1];
+            jobs[i] = -1;
+        }
+        setBlocks(numbers, sizes, jobs, new int[n], new int[n]);
+    }
+
+    public void setStats(SimulationStats stats) {
+        setBlocks(stats.blockNumbers, stats.blockSizes, stats.blockJobNumbers,
+            stats.blockJobTimeLeft, stats.blockJobTotalTime);
+    }
+
+    // Take new state arrays (not copied, the caller must not change them afterwards)
+    // and repaint the cells that differ from what is on screen
+    public void setBlocks(int[] numbers, int[] sizes, int[] jobs, int[] left, int[] total) {
+        // a different table of the same length still needs a full relayout
+        boolean sameTable = Arrays.equals(numbers, blockNumbers) && Arrays.equals(sizes, blockSizes);
+        int[] oldJobs = jobNumbers;
+        int[] oldLeft = timeLeft;
+        blockNumbers = numbers;
+        blockSizes = sizes;
+        jobNumbers = jobs;
+        timeLeft = left;
+        totalTime = total;
+
+        if (!sameTable) {
+            revalidate();
+            repaint();
+            return;
+        }
+        Rectangle visible = getVisibleRect();
+        if (visible.isEmpty()) {
+            return;
+        }
+        int first = firstIndexIn(visible);
+        int last = lastIndexIn(visible);
+        for (int i = first; i <= last; i++) {
+            if (jobs[i] != oldJobs[i] || left[i] != oldLeft[i]) {
+                repaint(cellBounds(i));
+            }
+        }
+    }
+
+    public void setZoom(double newZoom) {
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+        revalidate();
+        repaint();
+    }
+
+    public void zoomIn() { setZoom(zoom * 1.25); }
+    public void zoomOut() { setZoom(zoom / 1.25); }
+
+    private int cellWidth() { return Math.max(2, (int) (CELL_WIDTH * zoom)); }
+    private int cellHeight() { return Math.max(2, (int) (CELL_HEIGHT * zoom)); }
+    private int gap() { return Math.max(1, (int) (GAP * zoom)); }
+    private int pitchX() { return cellWidth() + gap(); }
+    private int pitchY() { return cellHeight() + gap(); }
+
+    // Wrap cells to the width of the viewport
+    private void updateColumns() {
+        int width = getParent() instanceof JViewport ? getParent().getWidth() : getWidth();
+        columns = Math.max(1, (width - gap()) / pitchX());
+    }
+
+    private Rectangle cellBounds(int index) {
+        int row = index / columns;
+        int col = index % columns;
+        return new Rectangle(gap() + col * pitchX(), gap() + row * pitchY(), cellWidth(), cellHeight());
+    }
+
+    private int firstIndexIn(Rectangle area) {
+        int row = Math.max(0, (area.y - gap()) / pitchY());
+        return Math.min(blockNumbers.length, row * columns);
+    }
+
+    private int lastIndexIn(Rectangle area) {
+        int row = (area.y + area.height) / pitchY();
+        return Math.min(blockNumbers.length - 1, (row + 1) * columns - 1);
+    }
+
+    @Override
+    public void doLayout() {
+        updateColumns();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        updateColumns();
+        int rows = (blockNumbers.length + columns - 1) / columns;
+        return new Dimension(gap() + Math.min(columns, Math.max(1, blockNumbers.length)) * pitchX(),
+            gap() + Math.max(1, rows) * pitchY());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        updateColumns();
+        if (blockNumbers.length == 0) {
+            return;
+        }
+
+        int cellW = cellWidth();
+        int cellH = cellHeight();
+        boolean drawText = cellW >= 80 && cellH >= 70;
+        g.setFont(font);
+        FontMetrics fm = g.getFontMetrics();
+
+        // Only the rows and columns that intersect the clip
+        int firstCol = Math.max(0, (clip.x - gap()) / pitchX());
+        int lastCol = Math.min(columns - 1, (clip.x + clip.width) / pitchX());
+        int first = firstIndexIn(clip);
+        int last = lastIndexIn(clip);
+        for (int i = first; i <= last; i++) {
+            int col = i % columns;
+            if (col < firstCol || col > lastCol) {
+                continue;
+            }
+            int x = gap() + col * pitchX();
+            int y = gap() + (i / columns) * pitchY();
+            paintCell(g, fm, i, x, y, cellW, cellH, drawText);
+        }
+    }
+
+    private void paintCell(Graphics g, FontMetrics fm, int i, int x, int y, int w, int h, boolean drawText) {
+        boolean hasJob = jobNumbers[i] >= 0;
+        float done = 0.0f;
+        if (hasJob && totalTime[i] > 0) {
+            done = 1.0f - ((float) timeLeft[i] / totalTime[i]);
+        }
+        boolean outline = w >= 12 && h >= 12;
+        Color freeColor = outline ? Color.LIGHT_GRAY : Color.WHITE;  // tiny cells have no outline to show them
+        g.setColor(hasJob ? progressColors[(int) (done * 255)] : freeColor);
+        g.fillRect(x, y, w, h);
+        if (outline) {
+            g.setColor(Color.BLACK);
+            g.drawRect(x, y, w - 1, h - 1);
+            g.drawRect(x + 1, y + 1, w - 3, h - 3);
+        }
+        if (!drawText) {
+            return;
+        }
+
+        // Same text as the old per-block panels
+        int top = y + (h - CELL_HEIGHT) / 2;
+        String line1 = "Block " + blockNumbers[i];
+        String line2 = "Size: " + blockSizes[i];
+        g.drawString(line1, x + (w - fm.stringWidth(line1)) / 2, top + 20);
+        g.drawString(line2, x + (w - fm.stringWidth(line2)) / 2, top + 35);
+        if (hasJob) {
+            g.setColor(done > 0.5f ? Color.WHITE : Color.BLACK);
+            String line3 = "Job " + jobNumbers[i];
+            String line4 = timeLeft[i] + "/" + totalTime[i];
+            g.drawString(line3, x + (w - fm.stringWidth(line3)) / 2, top + 50);
+            g.drawString(line4, x + (w - fm.stringWidth(line4)) / 2, top + 65);
+        } else {
+            g.setColor(Color.DARK_GRAY);
+            String line3 = "FREE";
+            g.drawString(line3, x + (w - fm.stringWidth(line3)) / 2, top + 55);
+        }
+    }
+
+    // Scrollable: track the viewport width (cells wrap) and scroll vertically by rows
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(5 * (CELL_WIDTH + GAP) + GAP, 2 * (CELL_HEIGHT + GAP) + GAP);
+    }
+
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? pitchY() : pitchX();
+    }
+
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+// Binary buddy allocation for DynamicMemorySimulator. Memory is handed out in power-of-two
+// blocks, each aligned to its own size. A request is rounded up to 2^k and takes the
+// lowest-addressed free block of the smallest order >= k; a bigger block is split in halves,
+// keeping the lower half and leaving the upper one free, until it is 2^k. When a block is
+// freed and its buddy (address ^ 2^k, the other half of the block it was split from) is free
+// too, the two are merged, and so on up. The rounding up is the engine's internal
+// fragmentation: the block is 2^k bytes, the job uses memoryNeeded of them.
+//
+// The capacity is cut into one top-level block per set bit, largest first, so every block is
+// aligned and the top-level blocks have no buddy. A job bigger than the largest of them can
+// never be placed.
+//
+// Free blocks are one TreeSet keyed (order << 32 | address): the first key >= (k << 32) is
+// the block to split, and finding a buddy is a lookup, so taking or freeing a block is
+// O(log n) per order it is split or merged through.
+public class BuddyPolicy extends VariablePartitionPolicy {
+
+    public static final int MAX_ORDER = 30;
+
+    public TreeSet<Long> freeBlocks;
+
+    public BuddyPolicy() {
+        super(BUDDY);
+        freeBlocks = new TreeSet<>();
+    }
+
+    public String getName() { return "Dynamic Buddy"; }
+    public String getLoadTag() { return " (BUDDY)"; }
+    public String getWaitingReason() { return "no free buddy block large enough"; }
+
+    private static long key(int order, int address) {
+        return ((long) order << 32) | address;
+    }
+
+    // One free top-level block per set bit of the capacity
+    public void init(ArrayList<MemoryBlock> blocks) {
+        initSlots(blocks);
+        freeBlocks.clear();
+        int address = 0;
+        for (int order = MAX_ORDER; order >= 0; order--) {
+            if ((capacity & (1 << order)) != 0) {
+                freeBlocks.add(key(order, address));
+                address += 1 << order;
+            }
+        }
+    }
+
+    // Pick the free block to split and point a free slot at its first 2^k bytes.
+    // The block is only taken (and split) in blockUsed().
+    public int selectBlock(int memoryNeeded) {
+        int order = SizeClassPolicy.requestClass(memoryNeeded);
+        if (order > MAX_ORDER) {
+            return -1;
+        }
+        Long found = freeBlocks.ceiling(key(order, 0));
+        if (found == null) {
+            return -1;
+        }
+        return slotAt((int) (found & 0xffffffffL), 1 << order);
+    }
+
+    // Take the free block that starts at the slot's address and split it down to the slot's size
+    public void blockUsed(int blockIndex) {
+        useSlot(blockIndex);
+        MemoryBlock block = blocks.get(blockIndex);
+        int address = block.blockNumber;
+        int order = SizeClassPolicy.blockClass(block.blockSize);
+        int split = order;
+        while (!freeBlocks.remove(key(split, address))) {
+            if (++split > MAX_ORDER) {
+                throw new IllegalStateException("No free buddy block at address " + address);
+            }
+        }
+        while (split > order) {
+            split--;
+            freeBlocks.add(key(split, address + (1 << split)));
+        }
+    }
+
+    // Return the block, merging it with its buddy for as long as the buddy is free
+    public void blockFreed(int blockIndex) {
+        MemoryBlock block = blocks.get(blockIndex);
+        int address = block.blockNumber;
+        int order = SizeClassPolicy.blockClass(block.blockSize);
+        while (order < MAX_ORDER && freeBlocks.remove(key(order, address ^ (1 << order)))) {
+            address &= ~(1 << order);
+            order++;
+        }
+        freeBlocks.add(key(order, address));
+        pushSlot(blockIndex);
+    }
+
+    public int largestFree() {
+        return freeBlocks.isEmpty() ? -1 : 1 << (int) (freeBlocks.last() >>> 32);
+    }
+
+    // Free blocks, not merged extents: two free neighbours that are not buddies count twice
+    public int freeExtentCount() {
+        return freeBlocks.size();
+    }
+}
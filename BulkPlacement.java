@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Places a whole batch of waiting jobs in one pass instead of asking the policy once per job.
+// Free blocks are kept as a bit set over the blocks ranked by (blockSize, blockIndex), i.e.
+// a free-block set sorted by size. The batch is sorted by size once, and then jobs and free
+// blocks are walked together like a merge: each job takes the smallest free block that is
+// big enough and still unclaimed, and the block cursor only ever moves forward (jumping
+// over runs of too-small blocks with a binary search on the sorted sizes).
+//
+// While bulk placement is on, the engine keeps this set up to date instead of the policy
+// (see SimulationEngine.setBulkPlacement).
+public class BulkPlacement {
+
+    public ArrayList<MemoryBlock> blocks;
+    public int[] blockAtRank;      // rank -> index in blocks
+    public int[] rankOfBlock;      // index in blocks -> rank
+    public int[] sizeAtRank;
+    public long[] freeRanks;       // bit r set if the block at rank r is free
+    public int freeCount;
+    public int[] placed;           // result of match(): block index per job, -1 if none
+
+    public BulkPlacement() {
+        placed = new int[64];
+    }
+
+    // Rank the blocks and mark the currently free ones
+    public void init(final ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        Integer[] order = new Integer[blocks.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                MemoryBlock b1 = blocks.get(i1);
+                MemoryBlock b2 = blocks.get(i2);
+                if (b1.blockSize != b2.blockSize) {
+                    return Integer.compare(b1.blockSize, b2.blockSize);
+                }
+                return Integer.compare(b1.blockIndex, b2.blockIndex);
+            }
+        });
+        blockAtRank = new int[order.length];
+        rankOfBlock = new int[order.length];
+        sizeAtRank = new int[order.length];
+        freeRanks = new long[(order.length + 63) / 64];
+        freeCount = 0;
+        for (int rank = 0; rank < order.length; rank++) {
+            int i = order[rank];
+            blockAtRank[rank] = i;
+            rankOfBlock[i] = rank;
+            sizeAtRank[rank] = blocks.get(i).blockSize;
+            if (blocks.get(i).isEmpty) {
+                freeRanks[rank >>> 6] |= 1L << rank;
+                freeCount++;
+            }
+        }
+    }
+
+    public void blockUsed(int blockIndex) {
+        int rank = rankOfBlock[blockIndex];
+        freeRanks[rank >>> 6] &= ~(1L << rank);
+        freeCount--;
+    }
+
+    public void blockFreed(int blockIndex) {
+        int rank = rankOfBlock[blockIndex];
+        freeRanks[rank >>> 6] |= 1L << rank;
+        freeCount++;
+    }
+
+    // Lowest free rank >= from, or -1
+    private int nextFree(int from) {
+        int word = from >>> 6;
+        if (word >= freeRanks.length) {
+            return -1;
+        }
+        long bits = freeRanks[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == freeRanks.length) {
+                return -1;
+            }
+            bits = freeRanks[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    // Lowest rank whose block size is >= size (blockAtRank.length if none)
+    private int firstRankOfSize(int size) {
+        int lo = 0;
+        int hi = sizeAtRank.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sizeAtRank[mid] < size) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Largest free block size, -1 if every block is occupied
+    public int largestFree() {
+        for (int word = freeRanks.length - 1; word >= 0; word--) {
+            if (freeRanks[word] != 0) {
+                return sizeAtRank[(word << 6) + 63 - Long.numberOfLeadingZeros(freeRanks[word])];
+            }
+        }
+        return -1;
+    }
+
+    // Match jobs[0..count), sorted by memoryNeeded (smallest first), against the free blocks.
+    // placed[i] gets the block index for jobs[i], or -1. The set itself is not changed:
+    // the caller reports each load through blockUsed().
+    public void match(Job[] jobs, int count) {
+        if (placed.length < count) {
+            placed = new int[Math.max(count, placed.length * 2)];
+        }
+        int rank = nextFree(0);
+        int i = 0;
+        for (; i < count && rank >= 0; i++) {
+            int need = jobs[i].memoryNeeded;
+            if (sizeAtRank[rank] < need) {
+                rank = nextFree(Math.max(rank + 1, firstRankOfSize(need)));
+            }
+            if (rank < 0) {
+                break;
+            }
+            placed[i] = blockAtRank[rank];
+            rank = nextFree(rank + 1);
+        }
+        for (; i < count; i++) {
+            placed[i] = -1;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+import java.util.ArrayList;
+
+// First-Fit simulator that keeps jobs and blocks in parallel primitive arrays
+// instead of Job/MemoryBlock objects. Same rules, getters and getStats() output as
+// MemorySimulator, but a job costs a few ints instead of an object plus list entries,
+// so very large traces fit in a small heap. Headless: there is no tick log.
+public class CompactMemorySimulator {
+
+    // Job states
+    public static final byte WAITING = 0;
+    public static final byte RUNNING = 1;
+    public static final byte DONE = 2;
+    public static final byte REJECTED = 3;
+
+    // Jobs, indexed by arrival order
+    public int jobCount;
+    public int[] jobNumber;
+    public int[] totalTime;
+    public int[] timeLeft;
+    public int[] memoryNeeded;
+    public byte[] state;
+    public int[] arrivalTime;
+    public int[] startTime;
+    public int[] blockOf;          // block index the job runs in, -1 if none
+
+    // Blocks, indexed by position in the block table
+    public int blockCount;
+    public int[] blockNumber;
+    public int[] blockSize;
+    public int[] jobInBlock;       // job index loaded in the block, -1 if empty
+    public int[] timeUsedTicks;
+    public int[] timesAssigned;
+    public int[] maxUtilization;
+    public FirstFitTree freeTree;
+
+    // Waiting queue (job indexes in FIFO order)
+    public int[] waiting;
+    public int waitingCount;
+    public int[] running;          // job indexes of running jobs, in no particular order
+    public int runningCount;
+    public int doneCount;
+    public int rejectedCount;
+
+    public int currentTime;
+    public int nextJobNumber;
+    public int largestBlock;
+    public boolean started;
+    // Metrics (same as MemorySimulator)
+    public long queueLengthSum;
+    public int queueLengthMax;
+    public int queueLengthSamples;
+    public long totalWaitTime;
+    public int jobsStartedCount;
+    public long internalFragSumBytes;
+    public long internalFragDenomBytes;
+    public int internalFragSamples;
+    public long occupiedWastedBytes;    // kept up to date on every load and finish
+    public long occupiedCapacityBytes;
+    public long totalBlockCapacity;
+
+    public int[][] allJobs = { //All job data [jobNumber, time, size]
+        {1, 5, 5760}, {2, 4, 4190}, {3, 8, 3290}, {4, 2, 2030}, {5, 2, 2550},
+        {6, 6, 6990}, {7, 8, 8940}, {8, 10, 740}, {9, 7, 3930}, {10, 6, 6890},
+        {11, 5, 6580}, {12, 8, 3820}, {13, 9, 9140}, {14, 10, 420}, {15, 10, 220},
+        {16, 7, 7540}, {17, 3, 3210}, {18, 1, 1380}, {19, 9, 9850}, {20, 3, 3610},
+        {21, 7, 7540}, {22, 2, 2710}, {23, 8, 8390}, {24, 5, 5950}, {25, 10, 760}
+    };
+    public int[][] allBlocks = { // All memory blocks [blockNumber, size]
+        {1, 9500}, {2, 7000}, {3, 4500}, {4, 8500}, {5, 3000},
+        {6, 9000}, {7, 1000}, {8, 5500}, {9, 1500}, {10, 500}
+    };
+
+    public CompactMemorySimulator() {
+        jobCount = 0;
+        blockCount = 0;
+        currentTime = 0;
+        nextJobNumber = 0;
+        largestBlock = 0;
+        started = false;
+    }
+
+    // Load the job table straight from columns, so huge traces never need an int[][]
+    public void setJobs(int[] numbers, int[] times, int[] sizes) {
+        jobCount = numbers.length;
+        jobNumber = numbers;
+        totalTime = times;
+        memoryNeeded = sizes;
+        allJobs = null;
+    }
+
+    // Set up the simulation
+    public void setup() {
+        if (allJobs != null) {
+            int n = allJobs.length;
+            int[] numbers = new int[n];
+            int[] times = new int[n];
+            int[] sizes = new int[n];
+            for (int i = 0; i < n; i++) {
+                numbers[i] = allJobs[i][0];
+                times[i] = allJobs[i][1];
+                sizes[i] = allJobs[i][2];
+            }
+            setJobs(numbers, times, sizes);
+        }
+        setupJobs();
+        setupBlocks();
+        running = new int[Math.min(jobCount, blockCount)];
+        started = true;
+    }
+
+    // Per-job state for the job table
+    public void setupJobs() {
+        timeLeft = new int[jobCount];
+        state = new byte[jobCount];
+        arrivalTime = new int[jobCount];
+        startTime = new int[jobCount];
+        blockOf = new int[jobCount];
+        waiting = new int[jobCount];
+    }
+
+    // Create all memory blocks
+    public void setupBlocks() {
+        blockCount = allBlocks.length;
+        blockNumber = new int[blockCount];
+        blockSize = new int[blockCount];
+        jobInBlock = new int[blockCount];
+        timeUsedTicks = new int[blockCount];
+        timesAssigned = new int[blockCount];
+        maxUtilization = new int[blockCount];
+        freeTree = new FirstFitTree(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            blockNumber[i] = allBlocks[i][0];
+            blockSize[i] = allBlocks[i][1];
+            jobInBlock[i] = -1;
+            freeTree.markFree(i, blockSize[i]);
+
+            // Track largest block
+            if (blockSize[i] > largestBlock) {
+                largestBlock = blockSize[i];
+            }
+            totalBlockCapacity += blockSize[i];
+        }
+    }
+
+    // Run one time tick. There is no text log in the compact backend, so this always returns "".
+    public String runOneTick() {
+        runTick();
+        return "";
+    }
+
+    // Run one time tick (same steps as MemorySimulator.runTick)
+    public void runTick() {
+        // Step 1: New job arrives
+        if (nextJobNumber < jobCount) {
+            int j = nextJobNumber;
+            timeLeft[j] = totalTime[j];
+            arrivalTime[j] = currentTime;
+            startTime[j] = -1;
+            blockOf[j] = -1;
+
+            // Check if job is too big
+            if (memoryNeeded[j] > largestBlock) {
+                state[j] = REJECTED;
+                rejectedCount++;
+            } else {
+                state[j] = WAITING;
+                waiting[waitingCount++] = j;
+            }
+            nextJobNumber++;
+        }
+
+        // Step 2: Process running jobs
+        // a finished job is swapped out for the last one, which then gets its turn at r
+        int r = 0;
+        while (r < runningCount) {
+            int j = running[r];
+            int i = blockOf[j];
+            timeUsedTicks[i]++;
+            timeLeft[j]--;
+
+            // Check if job finished
+            if (timeLeft[j] == 0) {
+                state[j] = DONE;
+                blockOf[j] = -1;
+                doneCount++;
+                running[r] = running[--runningCount];
+                jobInBlock[i] = -1;
+                freeTree.markFree(i, blockSize[i]);
+                occupiedWastedBytes -= blockSize[i] - memoryNeeded[j];
+                occupiedCapacityBytes -= blockSize[i];
+            } else {
+                r++;
+            }
+        }
+
+        // Step 3: Try to load waiting jobs
+        // record queue length snapshot before allocation
+        queueLengthSum += waitingCount;
+        queueLengthSamples++;
+        if (waitingCount > queueLengthMax) queueLengthMax = waitingCount;
+
+        // Loaded jobs are dropped by compacting the queue in place, keeping FIFO order
+        int kept = 0;
+        for (int w = 0; w < waitingCount; w++) {
+            int j = waiting[w];
+
+            // First-Fit: lowest-indexed free block that is big enough
+            int i = freeTree.findFirst(memoryNeeded[j]);
+            if (i >= 0) {
+                jobInBlock[i] = j;
+                freeTree.markUsed(i);
+                state[j] = RUNNING;
+                startTime[j] = currentTime;
+                blockOf[j] = i;
+                timesAssigned[i]++;
+                int util = (int)Math.round((memoryNeeded[j] * 100.0) / blockSize[i]);
+                if (util > maxUtilization[i]) maxUtilization[i] = util;
+                running[runningCount++] = j;
+                occupiedWastedBytes += blockSize[i] - memoryNeeded[j];
+                occupiedCapacityBytes += blockSize[i];
+                // accumulate wait time metric now that job started
+                totalWaitTime += currentTime - arrivalTime[j];
+                jobsStartedCount++;
+            } else {
+                waiting[kept++] = j;
+            }
+        }
+        waitingCount = kept;
+
+        // Step 4: Measure internal fragmentation after allocation for this tick
+        if (occupiedCapacityBytes > 0) {
+            internalFragSumBytes += occupiedWastedBytes;
+            internalFragDenomBytes += occupiedCapacityBytes;
+            internalFragSamples++;
+        }
+
+        currentTime++;
+    }
+
+    // Check if simulation is done
+    public boolean isDone() {
+        return nextJobNumber >= jobCount &&
+               waitingCount == 0 &&
+               runningCount == 0;
+    }
+
+    // Getter methods (same as MemorySimulator)
+    public boolean isStarted() { return started; }
+    public int getTime() { return currentTime; }
+    public int getRunningCount() { return runningCount; }
+    public int getWaitingCount() { return waitingCount; }
+    public int getDoneCount() { return doneCount; }
+    public int getRejectedCount() { return rejectedCount; }
+
+    // Build MemoryBlock/Job objects for the current block table, e.g. for the GUI.
+    // These are copies: changing them does not change the simulation.
+    public ArrayList<MemoryBlock> getBlocks() {
+        ArrayList<MemoryBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            MemoryBlock block = new MemoryBlock(blockNumber[i], blockSize[i]);
+            block.blockIndex = i;
+            block.timeUsedTicks = timeUsedTicks[i];
+            block.timesAssigned = timesAssigned[i];
+            block.maxUtilization = maxUtilization[i];
+            int j = jobInBlock[i];
+            if (j >= 0) {
+                Job job = new Job(jobNumber[j], totalTime[j], memoryNeeded[j]);
+                job.timeLeft = timeLeft[j];
+                job.status = "RUNNING";
+                job.blockNumber = blockNumber[i];
+                job.arrivalTime = arrivalTime[j];
+                job.startTime = startTime[j];
+                job.waitTime = startTime[j] - arrivalTime[j];
+                block.currentJob = job;
+                block.isEmpty = false;
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    // Per-block values read by SimulationStats
+    public int blockNumberOf(int i) { return blockNumber[i]; }
+    public int blockSizeOf(int i) { return blockSize[i]; }
+    public int jobInBlockOf(int i) { return jobInBlock[i]; }
+    public int usedTicksOf(int i) { return timeUsedTicks[i]; }
+    public int assignmentsOf(int i) { return timesAssigned[i]; }
+
+    // Structured copy of the counters behind getStats(), with the per-block arrays
+    public SimulationStats getSnapshot() {
+        return new SimulationStats(this, true);
+    }
+
+    // Build extended statistics string (same format as MemorySimulator)
+    public String getStats() {
+        return new SimulationStats(this, false).format();
+    }
+}
@@ -0,0 +1,111 @@
+// Variable-partition (dynamic) allocation on the shared SimulationEngine. Instead of fixed
+// blocks, memory is one address space of `capacity` bytes (by default the total of
+// allBlocks, so runs are comparable with the fixed-partition simulators). A job carves
+// exactly memoryNeeded bytes out of a free extent, so there is no internal fragmentation;
+// when it finishes its extent is returned and merged with free neighbours. Placement and
+// coalescing are done by a VariablePartitionPolicy; arrivals, the waiting queue, the tick
+// log and the job metrics are the engine's. With BUDDY placement a job gets a power-of-two
+// block instead (see BuddyPolicy), and the rounding up shows as internal fragmentation.
+//
+// External fragmentation (free memory outside the largest free extent) is measured every tick.
+public class DynamicMemorySimulator extends SimulationEngine {
+
+    // Placement strategies
+    public static final int FIRST_FIT = VariablePartitionPolicy.FIRST_FIT;
+    public static final int BEST_FIT = VariablePartitionPolicy.BEST_FIT;
+    public static final int BUDDY = VariablePartitionPolicy.BUDDY;
+
+    public VariablePartitionPolicy partitions;
+    public int capacity;
+    // Metrics
+    public double externalFragPctSum;      // sum over ticks of % of free memory outside the largest extent
+    public int externalFragSamples;        // ticks with any free memory
+    public long freeExtentsSum;            // sum over ticks of the number of free extents
+
+    public DynamicMemorySimulator(int placement) {
+        super(placement == BUDDY ? new BuddyPolicy() : new VariablePartitionPolicy(placement));
+        partitions = (VariablePartitionPolicy) policy;
+        capacity = 0;
+        // Blocks are extents here: report addresses instead of block numbers
+        textLog = new TextLogListener(policy.getLoadTag(), policy.getWaitingReason()) {
+            @Override
+            public void jobFinished(Job job, MemoryBlock block) {
+                log.append("Job ").append(job.jobNumber).append(" finished!\n");
+                log.append("Memory ").append(block.blockNumber).append("-")
+                   .append(block.blockNumber + block.blockSize - 1).append(" is now free\n");
+            }
+
+            @Override
+            public void jobLoaded(Job job, MemoryBlock block) {
+                log.append("Job ").append(job.jobNumber).append(" loaded at address ").append(block.blockNumber)
+                   .append(loadTag).append("\n");
+            }
+        };
+        listener = textLog;
+    }
+
+    // Set up the simulation: one free extent covering the whole address space
+    @Override
+    public void setup() {
+        if (capacity == 0) {
+            for (int i = 0; i < allBlocks.length; i++) {
+                capacity += allBlocks[i][1];
+            }
+        }
+        partitions.capacity = capacity;
+        super.setup();
+        // a job is only rejected if it is bigger than the largest extent of empty memory
+        // (the whole of it, or for buddy allocation the largest power-of-two block)
+        largestBlock = largestFreeExtent();
+        totalBlockCapacity = capacity;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        externalFragPctSum = 0;
+        externalFragSamples = 0;
+        freeExtentsSum = 0;
+    }
+
+    // Bulk placement matches jobs against fixed free blocks, which do not exist here
+    @Override
+    public void setBulkPlacement(boolean bulk) {
+        if (bulk) {
+            throw new IllegalArgumentException("Bulk placement needs fixed partitions");
+        }
+        super.setBulkPlacement(false);
+    }
+
+    public int largestFreeExtent() {
+        return Math.max(partitions.largestFree(), 0);
+    }
+
+    // Measure external fragmentation, after allocation
+    @Override
+    public void ticksMeasured(int ticks) {
+        long freeBytes = capacity - occupiedCapacityBytes;
+        if (freeBytes > 0) {
+            externalFragPctSum += (freeBytes - largestFreeExtent()) * 100.0 / freeBytes * ticks;
+            externalFragSamples += ticks;
+            freeExtentsSum += (long) partitions.freeExtentCount() * ticks;
+        }
+    }
+
+    // Build extended statistics string: the engine's job lines, then fragmentation and utilization
+    @Override
+    public String getStats() {
+        StringBuilder sb = new StringBuilder(getSnapshot().formatJobs());
+
+        // External fragmentation
+        double avgExternalPct = externalFragSamples > 0 ? externalFragPctSum / externalFragSamples : 0.0;
+        double avgExtents = externalFragSamples > 0 ? (freeExtentsSum * 1.0) / externalFragSamples : 0.0;
+        sb.append(String.format("Avg external fragmentation: %.2f%% of free memory outside the largest extent (%.1f free extents)\n",
+            avgExternalPct, avgExtents));
+
+        // allocated bytes summed over ticks (the internal fragmentation denominator)
+        double utilPct = (getTime() > 0 && capacity > 0) ? (internalFragDenomBytes * 100.0) / ((long) getTime() * capacity) : 0.0;
+        sb.append(String.format("Avg memory utilization: %.2f%% of %d bytes\n", utilPct, capacity));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,439 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Reads a binary log written by EventLogWriter, record by record with next(), or replays
+// it into any SimulationListener. On top of replay:
+//   renderText() - the same text the GUI log would have shown for the run (only for a log
+//                  written with recordWaiting, as the text has a line per waiting job)
+//   aggregate()  - the getStats()/getPercentileStats() numbers, computed offline
+//
+// A log cut short (e.g. the process died) is read up to its last complete record.
+//
+// Usage: java EventLogReader log=run.evl [mode=stats|text]
+public class EventLogReader implements Closeable {
+
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    public FileChannel channel;
+    public ByteBuffer buffer;
+
+    // Header
+    public boolean recordWaiting;  // WAITING events were logged
+    public String algorithm;
+    public String loadTag;
+    public String waitingReason;
+    public int[] blockNumbers;
+    public int[] blockSizes;
+
+    // The record last read by next()
+    public byte type;
+    public int tick;
+    public int job;
+    public int block;
+    public int bytes;
+    public int value;
+
+    public EventLogReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();  // empty, nothing read yet
+        try {
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (!fill(8) || buffer.getInt() != EventLogWriter.MAGIC) {
+            throw new IOException("Not a simulator event log");
+        }
+        int version = buffer.getInt();
+        if (version != EventLogWriter.VERSION) {
+            throw new IOException("Unsupported event log version " + version);
+        }
+        recordWaiting = getInt() != 0;
+        algorithm = getString();
+        loadTag = getString();
+        waitingReason = getString();
+        int count = getInt();
+        blockNumbers = new int[count];
+        blockSizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            blockNumbers[i] = getInt();
+            blockSizes[i] = getInt();
+        }
+    }
+
+    private int getInt() throws IOException {
+        if (!fill(4)) {
+            throw new EOFException("Event log header is truncated");
+        }
+        return buffer.getInt();
+    }
+
+    private String getString() throws IOException {
+        int length = getInt();
+        if (length > BUFFER_SIZE || !fill(length)) {
+            throw new EOFException("Event log header is truncated");
+        }
+        byte[] text = new byte[length];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    // Make sure n bytes are buffered. Returns false if the file ends first.
+    private boolean fill(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    // Read the next record into type/tick/job/block/bytes/value. Returns false at the end.
+    public boolean next() throws IOException {
+        if (!fill(EventLogWriter.RECORD_BYTES)) {
+            return false;
+        }
+        type = buffer.get();
+        tick = buffer.getInt();
+        job = buffer.getInt();
+        block = buffer.getInt();
+        bytes = buffer.getInt();
+        value = buffer.getInt();
+        return true;
+    }
+
+    // Feed the rest of the log to listener as if the simulator were running. The Job and
+    // MemoryBlock objects passed along are rebuilt from the records and reused between
+    // calls, so the listener must not keep them; only the fields the log carries are set.
+    public void replay(SimulationListener listener) throws IOException {
+        MemoryBlock[] blocks = new MemoryBlock[blockNumbers.length];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new MemoryBlock(blockNumbers[i], blockSizes[i]);
+            blocks[i].blockIndex = i;
+        }
+        Job current = new Job(0, 0, 0);
+        boolean inTick = false;
+        int lastTick = 0;
+        while (next()) {
+            switch (type) {
+                case EventLogWriter.TICK:
+                    if (inTick) listener.tickEnded(lastTick);
+                    listener.tickStarted(tick);
+                    inTick = true;
+                    lastTick = tick;
+                    break;
+                case EventLogWriter.IDLE:
+                    if (inTick) listener.tickEnded(lastTick);
+                    inTick = false;
+                    listener.idleTicksSkipped(tick, value);
+                    break;
+                case EventLogWriter.ARRIVAL:
+                    current.reset(job, value, bytes);
+                    current.arrivalTime = tick;
+                    listener.jobArrived(current);
+                    break;
+                case EventLogWriter.REJECT:
+                    current.reset(job, 0, bytes);
+                    current.arrivalTime = tick;
+                    listener.jobRejected(current);
+                    break;
+                case EventLogWriter.WAITING:
+                    current.reset(job, 0, bytes);
+                    listener.jobWaiting(current);
+                    break;
+                case EventLogWriter.LOAD:
+                case EventLogWriter.FINISH: {
+                    MemoryBlock b = blocks[block];
+                    current.reset(job, 0, b.blockSize - bytes);
+                    current.blockNumber = b.blockNumber;
+                    b.currentJob = current;
+                    b.isEmpty = false;
+                    if (type == EventLogWriter.LOAD) {
+                        current.arrivalTime = tick - value;
+                        current.startTime = tick;
+                        current.waitTime = value;
+                        listener.jobLoaded(current, b);
+                    } else {
+                        current.arrivalTime = tick - value;
+                        listener.jobFinished(current, b);
+                    }
+                    b.currentJob = null;
+                    b.isEmpty = true;
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown event log record type " + type);
+            }
+        }
+        if (inTick) listener.tickEnded(lastTick);
+    }
+
+    // Write the GUI's text log for the rest of the run to out, one tick at a time
+    public void renderText(final PrintStream out) throws IOException {
+        if (!recordWaiting) {
+            throw new IllegalStateException("Event log was written without waiting events, so its text log would be incomplete");
+        }
+        replay(new TextLogListener(loadTag, waitingReason) {
+            @Override
+            public void tickEnded(int time) {
+                super.tickEnded(time);
+                out.print(takeLog());
+            }
+
+            @Override
+            public void idleTicksSkipped(int fromTime, int ticks) {
+                super.idleTicksSkipped(fromTime, ticks);
+                out.print(takeLog());
+            }
+        });
+    }
+
+    // Replay the rest of the run into the same counters the simulator keeps
+    public Metrics aggregate() throws IOException {
+        Metrics metrics = new Metrics(algorithm, blockNumbers, blockSizes);
+        replay(metrics);
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Simulator counters rebuilt from the events, named as in SimulationEngine.
+    // The queue length is sampled where the engine samples it: after arrivals and
+    // finishes, before the first job of the tick is placed.
+    public static class Metrics implements SimulationListener {
+
+        public String algorithm;
+        public int[] blockNumbers;
+        public int[] blockSizes;
+        public int[] blockTimeUsedTicks;   // for finished jobs; see timeUsedTicks()
+        public int[] blockTimesAssigned;
+        public int[] blockJobNumbers;      // job in the block, -1 if free
+        public int[] blockLoadTick;
+
+        public int time;                   // ticks run, like SimulationEngine.getTime()
+        public int tick;
+        public boolean sampled;            // queue length already sampled this tick
+        public int waitingCount;
+        public int runningCount;
+        public int doneCount;
+        public int rejectedCount;
+        public long queueLengthSum;
+        public int queueLengthMax;
+        public int queueLengthSamples;
+        public long totalWaitTime;
+        public int jobsStartedCount;
+        public long internalFragSumBytes;
+        public long internalFragDenomBytes;
+        public int internalFragSamples;
+        public long occupiedWastedBytes;
+        public long occupiedCapacityBytes;
+        public long finishedUsedTicks;     // block-ticks of jobs that have finished
+        public LatencyHistogram waitTimeHistogram;
+        public LatencyHistogram turnaroundHistogram;
+        public LatencyHistogram queueLengthHistogram;
+
+        public Metrics(String algorithm, int[] blockNumbers, int[] blockSizes) {
+            this.algorithm = algorithm;
+            this.blockNumbers = blockNumbers;
+            this.blockSizes = blockSizes;
+            int blocks = blockNumbers.length;
+            blockTimeUsedTicks = new int[blocks];
+            blockTimesAssigned = new int[blocks];
+            blockJobNumbers = new int[blocks];
+            blockLoadTick = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockJobNumbers[i] = -1;
+            }
+            waitTimeHistogram = new LatencyHistogram();
+            turnaroundHistogram = new LatencyHistogram();
+            queueLengthHistogram = new LatencyHistogram();
+        }
+
+        // Ticks block i was occupied, counting a job still running at the end of the log
+        public int timeUsedTicks(int i) {
+            int used = blockTimeUsedTicks[i];
+            if (blockJobNumbers[i] >= 0) {
+                used += time - 1 - blockLoadTick[i];
+            }
+            return used;
+        }
+
+        // Block-ticks occupied over the whole log, like SimulationEngine.totalUsedTicks
+        public long totalUsedTicks() {
+            long used = finishedUsedTicks;
+            for (int i = 0; i < blockJobNumbers.length; i++) {
+                if (blockJobNumbers[i] >= 0) {
+                    used += time - 1 - blockLoadTick[i];
+                }
+            }
+            return used;
+        }
+
+        private void sampleQueue() {
+            if (sampled) {
+                return;
+            }
+            sampled = true;
+            queueLengthSum += waitingCount;
+            queueLengthSamples++;
+            if (waitingCount > queueLengthMax) queueLengthMax = waitingCount;
+            queueLengthHistogram.recordValue(waitingCount);
+        }
+
+        @Override
+        public void tickStarted(int time) {
+            tick = time;
+            sampled = false;
+        }
+
+        @Override
+        public void jobArrived(Job job) {
+            waitingCount++;
+        }
+
+        @Override
+        public void jobRejected(Job job) {
+            waitingCount--;
+            rejectedCount++;
+        }
+
+        @Override
+        public void jobFinished(Job job, MemoryBlock block) {
+            int i = block.blockIndex;
+            int used = tick - blockLoadTick[i];
+            blockTimeUsedTicks[i] += used;
+            finishedUsedTicks += used;
+            blockJobNumbers[i] = -1;
+            occupiedWastedBytes -= block.getWastedSpace();
+            occupiedCapacityBytes -= block.blockSize;
+            runningCount--;
+            doneCount++;
+            turnaroundHistogram.recordValue(tick - job.arrivalTime);
+        }
+
+        @Override
+        public void jobLoaded(Job job, MemoryBlock block) {
+            sampleQueue();
+            int i = block.blockIndex;
+            blockTimesAssigned[i]++;
+            blockJobNumbers[i] = job.jobNumber;
+            blockLoadTick[i] = tick;
+            occupiedWastedBytes += block.getWastedSpace();
+            occupiedCapacityBytes += block.blockSize;
+            waitingCount--;
+            runningCount++;
+            totalWaitTime += job.waitTime;
+            jobsStartedCount++;
+            waitTimeHistogram.recordValue(job.waitTime);
+        }
+
+        @Override
+        public void jobWaiting(Job job) {
+            sampleQueue();
+        }
+
+        @Override
+        public void idleTicksSkipped(int fromTime, int ticks) {
+            queueLengthSum += (long) waitingCount * ticks;
+            queueLengthSamples += ticks;
+            if (waitingCount > queueLengthMax) queueLengthMax = waitingCount;
+            queueLengthHistogram.recordValueWithCount(waitingCount, ticks);
+            if (occupiedCapacityBytes > 0) {
+                internalFragSumBytes += occupiedWastedBytes * ticks;
+                internalFragDenomBytes += occupiedCapacityBytes * ticks;
+                internalFragSamples += ticks;
+            }
+            time = fromTime + ticks;
+        }
+
+        @Override
+        public void tickEnded(int time) {
+            sampleQueue();
+            if (occupiedCapacityBytes > 0) {
+                internalFragSumBytes += occupiedWastedBytes;
+                internalFragDenomBytes += occupiedCapacityBytes;
+                internalFragSamples++;
+            }
+            this.time = time + 1;
+        }
+
+        public SimulationStats getSnapshot() {
+            return new SimulationStats(this);
+        }
+
+        // Same text as SimulationEngine.getStats()
+        public String getStats() {
+            return getSnapshot().format();
+        }
+
+        // Same text as SimulationEngine.getPercentileStats()
+        public String getPercentileStats() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(waitTimeHistogram.formatPercentiles("Waiting time (ticks)"));
+            sb.append(turnaroundHistogram.formatPercentiles("Turnaround time (ticks)"));
+            sb.append(queueLengthHistogram.formatPercentiles("Waiting queue length"));
+            return sb.toString();
+        }
+    }
+
+    // Print the statistics or the text log of a recorded run
+    public static void main(String[] args) throws IOException {
+        String log = null;
+        String mode = "stats";
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "log": log = value; break;
+                case "mode": mode = value; break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (log == null) {
+            throw new IllegalArgumentException("Usage: java EventLogReader log=run.evl [mode=stats|text]");
+        }
+
+        try (EventLogReader reader = new EventLogReader(Paths.get(log))) {
+            switch (mode) {
+                case "text":
+                    reader.renderText(System.out);
+                    System.out.flush();
+                    break;
+                case "stats":
+                    Metrics metrics = reader.aggregate();
+                    System.out.println(reader.algorithm + ", " + reader.blockNumbers.length + " blocks");
+                    System.out.print(metrics.getStats());
+                    System.out.print(metrics.getPercentileStats());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Listener that appends every event of a run to a compact binary log instead of building
+// text, so a full trace of a long run can be kept without slowing it down. Events are
+// fixed-size records packed into direct buffers on the simulation thread; whole buffers
+// are handed to a background thread that writes them through a FileChannel. The
+// simulation thread only waits if the disk falls BUFFER_COUNT buffers behind.
+//
+// EventLogReader turns a log back into the GUI text log or into getStats() numbers.
+//
+// Layout (big-endian):
+//   header   magic, version, recordWaiting (1 or 0), algorithm name, load tag,
+//            waiting reason, block count, then [blockNumber, size] per block
+//   records  RECORD_BYTES each: type, tick, job, block, bytes, value
+//
+//   type      job          block        bytes            value
+//   TICK      0            -1           0                0             a tick starts
+//   ARRIVAL   jobNumber    -1           memoryNeeded     totalTime
+//   REJECT    jobNumber    -1           memoryNeeded     0
+//   FINISH    jobNumber    blockIndex   wasted bytes     turnaround ticks
+//   LOAD      jobNumber    blockIndex   wasted bytes     wait ticks
+//   WAITING   jobNumber    -1           memoryNeeded     0             only with recordWaiting
+//   IDLE      0            -1           0                ticks skipped (tick = first one)
+//
+// Usage:
+//   EventLogWriter log = new EventLogWriter(sim, path, false);   // after sim.setup()
+//   sim.setListener(log);
+//   ... run ...
+//   log.close();
+public class EventLogWriter implements SimulationListener, Closeable {
+
+    public static final int MAGIC = 0x4d534556;      // "MSEV"
+    public static final int VERSION = 2;
+    public static final int RECORD_BYTES = 21;       // a type byte and 5 ints
+    public static final int BUFFER_SIZE = 1 << 16;
+    public static final int BUFFER_COUNT = 4;
+
+    // Record types
+    public static final byte TICK = 0;
+    public static final byte ARRIVAL = 1;
+    public static final byte REJECT = 2;
+    public static final byte FINISH = 3;
+    public static final byte LOAD = 4;
+    public static final byte WAITING = 5;
+    public static final byte IDLE = 6;
+
+    // Put in the full queue after the last buffer to stop the writer thread
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    public FileChannel channel;
+    public boolean recordWaiting;  // log jobWaiting() events (one per waiting job per tick)
+    public ByteBuffer current;     // being filled by the simulation thread
+    public ArrayBlockingQueue<ByteBuffer> full;
+    public ArrayBlockingQueue<ByteBuffer> free;
+    public Thread writer;
+    public int tick;
+    public long recordCount;
+    private volatile IOException failure;
+    private boolean closed;
+
+    // Start a log for sim, which must already be set up (the block table goes in the header)
+    public EventLogWriter(SimulationEngine sim, Path path, boolean recordWaiting) throws IOException {
+        this.recordWaiting = recordWaiting;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.full = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+        this.free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        try {
+            current = free.remove();
+            writeHeader(sim);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.writer = new Thread(this::writeLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeHeader(SimulationEngine sim) throws IOException {
+        current.putInt(MAGIC).putInt(VERSION).putInt(recordWaiting ? 1 : 0);
+        putString(sim.getAlgorithmName());
+        putString(sim.textLog.loadTag);
+        putString(sim.textLog.waitingReason);
+        ArrayList<MemoryBlock> blocks = sim.memoryBlocks;
+        current.putInt(blocks.size());
+        for (MemoryBlock block : blocks) {
+            if (current.remaining() < 8) {
+                writeCurrent();
+            }
+            current.putInt(block.blockNumber).putInt(block.blockSize);
+        }
+        writeCurrent();
+    }
+
+    private void putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (current.remaining() < 4 + bytes.length) {
+            writeCurrent();
+        }
+        current.putInt(bytes.length).put(bytes);
+    }
+
+    // Header only: write straight from the calling thread
+    private void writeCurrent() throws IOException {
+        current.flip();
+        while (current.hasRemaining()) {
+            channel.write(current);
+        }
+        current.clear();
+    }
+
+    // Background thread: write full buffers in order and hand them back
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer buffer = full.take();
+                if (buffer == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                buffer.clear();
+                free.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(byte type, int time, int job, int block, int bytes, int value) {
+        if (current.remaining() < RECORD_BYTES) {
+            handOff();
+        }
+        current.put(type).putInt(time).putInt(job).putInt(block).putInt(bytes).putInt(value);
+        recordCount++;
+    }
+
+    // Queue the current buffer for writing and continue in a free one
+    private void handOff() {
+        if (failure != null) {
+            throw new IllegalStateException("Event log write failed", failure);
+        }
+        current.flip();
+        try {
+            full.put(current);
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the event log", e);
+        }
+    }
+
+    @Override
+    public void tickStarted(int time) {
+        tick = time;
+        put(TICK, time, 0, -1, 0, 0);
+    }
+
+    @Override
+    public void jobArrived(Job job) {
+        put(ARRIVAL, tick, job.jobNumber, -1, job.memoryNeeded, job.totalTime);
+    }
+
+    @Override
+    public void jobRejected(Job job) {
+        put(REJECT, tick, job.jobNumber, -1, job.memoryNeeded, 0);
+    }
+
+    @Override
+    public void jobFinished(Job job, MemoryBlock block) {
+        put(FINISH, tick, job.jobNumber, block.blockIndex, block.getWastedSpace(), tick - job.arrivalTime);
+    }
+
+    @Override
+    public void jobLoaded(Job job, MemoryBlock block) {
+        put(LOAD, tick, job.jobNumber, block.blockIndex, block.getWastedSpace(), job.waitTime);
+    }
+
+    @Override
+    public void jobWaiting(Job job) {
+        put(WAITING, tick, job.jobNumber, -1, job.memoryNeeded, 0);
+    }
+
+    @Override
+    public void idleTicksSkipped(int fromTime, int ticks) {
+        put(IDLE, fromTime, 0, -1, 0, ticks);
+    }
+
+    @Override
+    public boolean wantsWaitingEvents() {
+        return recordWaiting;
+    }
+
+    // Write out everything logged so far and close the file. Call from the simulation thread.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current.position() > 0) {
+                current.flip();
+                full.put(current);
+            }
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the event log", e);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.Random;
+
+// Checks that the event-driven mode (runUntilNextEvent) gives the same results as running
+// every tick (runOneTick), for every policy, with and without bulk placement, over random
+// block tables and workloads. Skipping a tick is only right if nothing could have happened
+// in it, so a placement pass that leaves a fitting job waiting shows up here as a mismatch.
+//
+// Usage: java EventModeCheck [configs=200] [seed=1]
+// Prints each mismatching configuration and exits with status 1 if there was any.
+public class EventModeCheck {
+
+    public static final String[] POLICIES = {"first-fit", "best-fit", "next-fit", "worst-fit", "size-class"};
+
+    public static void main(String[] args) {
+        int configs = 200;
+        long seed = 1;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "configs": configs = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        int checked = 0;
+        int mismatches = 0;
+        for (int c = 0; c < configs; c++) {
+            Random random = new Random(seed + c);
+            int[][] blocks = new int[1 + random.nextInt(30)][2];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i][0] = i + 1;
+                blocks[i][1] = 100 * (1 + random.nextInt(20));
+            }
+            // arrivals bunched into a short window, so queues build up and many jobs finish together
+            int[][] jobs = new int[1 + random.nextInt(200)][3];
+            int window = 1 + random.nextInt(100);
+            for (int i = 0; i < jobs.length; i++) {
+                jobs[i][0] = i + 1;
+                jobs[i][1] = 1 + random.nextInt(window);
+                jobs[i][2] = 50 * (1 + random.nextInt(42));
+            }
+            for (String policy : POLICIES) {
+                for (int bulk = 0; bulk < 2; bulk++) {
+                    String byTick = run(policy, blocks, jobs, bulk == 1, false);
+                    String byEvent = run(policy, blocks, jobs, bulk == 1, true);
+                    checked++;
+                    if (!byTick.equals(byEvent)) {
+                        mismatches++;
+                        System.out.println("MISMATCH config " + c + " " + policy + (bulk == 1 ? " bulk" : "")
+                            + "\n--- tick by tick\n" + byTick + "--- event-driven\n" + byEvent);
+                    }
+                }
+            }
+        }
+        System.out.println(checked + " runs checked, " + mismatches + " mismatches");
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Run to completion and return the stats and percentiles
+    public static String run(String policy, int[][] blocks, int[][] jobs, boolean bulk, boolean eventDriven) {
+        SimulationEngine sim = SimulationEngine.create(policy);
+        sim.allBlocks = blocks;
+        sim.allJobs = jobs.clone();  // best-fit's setup() sorts the job table in place
+        sim.setQuiet(true);
+        sim.setBulkPlacement(bulk);
+        sim.setup();
+        while (!sim.isDone()) {
+            if (eventDriven) {
+                sim.runUntilNextEvent();
+            } else {
+                sim.runTick();
+            }
+        }
+        return sim.getStats() + sim.getPercentileStats();
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.ArrayList;
+
+// First-Fit: the lowest-indexed free block that is big enough (segment tree, O(log n))
+public class FirstFitPolicy implements AllocationPolicy {
+
+    public ArrayList<MemoryBlock> blocks;
+    public FirstFitTree freeTree;          // max free size per block
+
+    public String getName() { return "First-Fit"; }
+    public String getLoadTag() { return ""; }
+    public String getWaitingReason() { return "no block available"; }
+
+    public void init(ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        freeTree = new FirstFitTree(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            freeTree.markFree(i, blocks.get(i).blockSize);
+        }
+    }
+
+    public int selectBlock(int memoryNeeded) {
+        return freeTree.findFirst(memoryNeeded);
+    }
+
+    public void blockUsed(int blockIndex) {
+        freeTree.markUsed(blockIndex);
+    }
+
+    public void blockFreed(int blockIndex) {
+        freeTree.markFree(blockIndex, blocks.get(blockIndex).blockSize);
+    }
+
+    public int largestFree() {
+        return freeTree.largestFree();
+    }
+}
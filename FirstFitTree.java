@@ -0,0 +1,100 @@
+// Max segment tree over the block list, used to answer first-fit queries.
+// Each leaf holds the size of a free block (or -1 if the block is occupied),
+// and each inner node holds the largest free size below it.
+public class FirstFitTree {
+
+    public int[] tree;   // tree[1] is the root, leaves start at tree[leafStart]
+    public int leafStart;
+    public int blockCount;
+
+    public FirstFitTree(int blockCount) {
+        this.blockCount = blockCount;
+        int size = 1;
+        while (size < blockCount) {
+            size *= 2;
+        }
+        this.leafStart = size;
+        this.tree = new int[2 * size];
+        for (int i = 0; i < tree.length; i++) {
+            tree[i] = -1;
+        }
+    }
+
+    // Set the free size of one block and fix up its parents, O(log n)
+    public void update(int blockIndex, int freeSize) {
+        int node = leafStart + blockIndex;
+        tree[node] = freeSize;
+        node /= 2;
+        while (node >= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            node /= 2;
+        }
+    }
+
+    // Set every block's free size to freeSize and rebuild the inner nodes, O(n)
+    public void fill(int freeSize) {
+        for (int i = 0; i < blockCount; i++) {
+            tree[leafStart + i] = freeSize;
+        }
+        for (int node = leafStart - 1; node >= 1; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    public void markFree(int blockIndex, int blockSize) {
+        update(blockIndex, blockSize);
+    }
+
+    public void markUsed(int blockIndex) {
+        update(blockIndex, -1);
+    }
+
+    // Lowest block index whose free size is >= memoryNeeded, or -1 if none, O(log n)
+    public int findFirst(int memoryNeeded) {
+        if (tree[1] < memoryNeeded) {
+            return -1;
+        }
+        int node = 1;
+        while (node < leafStart) {
+            // go left whenever the left half has a big enough block, so we get the lowest index
+            if (tree[2 * node] >= memoryNeeded) {
+                node = 2 * node;
+            } else {
+                node = 2 * node + 1;
+            }
+        }
+        return node - leafStart;
+    }
+
+    // Lowest block index >= from whose free size is >= memoryNeeded, or -1 if none, O(log n)
+    public int findFirstFrom(int from, int memoryNeeded) {
+        if (from <= 0) {
+            return findFirst(memoryNeeded);
+        }
+        if (from >= blockCount) {
+            return -1;
+        }
+        return findFrom(1, 0, leafStart - 1, from, memoryNeeded);
+    }
+
+    // Search the subtree at node, which covers leaves lo..hi, for leaves >= from
+    private int findFrom(int node, int lo, int hi, int from, int memoryNeeded) {
+        if (hi < from || tree[node] < memoryNeeded) {
+            return -1;
+        }
+        if (lo == hi) {
+            return lo;
+        }
+        int mid = (lo + hi) / 2;
+        int found = findFrom(2 * node, lo, mid, from, memoryNeeded);
+        if (found >= 0) {
+            return found;
+        }
+        return findFrom(2 * node + 1, mid + 1, hi, from, memoryNeeded);
+    }
+
+    // Largest free block size, or -1 if every block is occupied
+    public int largestFree() {
+        return tree[1];
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+
+// Binary max-heap of free block indexes, ordered on (blockSize, lower index first).
+// Each block's position in the heap is kept in positions[], so any block can be
+// removed in O(log n), not only the top. Heaps over disjoint sets of blocks may share
+// one positions array.
+public class FreeBlockHeap {
+
+    public ArrayList<MemoryBlock> blocks;
+    public int[] heap;        // block indexes, heap[0] is the largest free block
+    public int size;
+    public int[] positions;   // block index -> position in heap (valid while the block is in it)
+
+    public FreeBlockHeap(ArrayList<MemoryBlock> blocks, int capacity, int[] positions) {
+        this.blocks = blocks;
+        this.heap = new int[capacity];
+        this.size = 0;
+        this.positions = positions;
+    }
+
+    // Largest free block, or -1 if the heap is empty
+    public int top() {
+        return size > 0 ? heap[0] : -1;
+    }
+
+    public void add(int blockIndex) {
+        int pos = size++;
+        place(pos, blockIndex);
+        siftUp(pos);
+    }
+
+    public void remove(int blockIndex) {
+        int pos = positions[blockIndex];
+        int last = heap[--size];
+        if (pos == size) {
+            return;
+        }
+        place(pos, last);
+        if (pos > 0 && above(last, heap[(pos - 1) / 2])) {
+            siftUp(pos);
+        } else {
+            siftDown(pos);
+        }
+    }
+
+    // true if block a should sit above block b in the heap
+    private boolean above(int a, int b) {
+        int sizeA = blocks.get(a).blockSize;
+        int sizeB = blocks.get(b).blockSize;
+        if (sizeA != sizeB) {
+            return sizeA > sizeB;
+        }
+        return a < b;
+    }
+
+    private void place(int pos, int blockIndex) {
+        heap[pos] = blockIndex;
+        positions[blockIndex] = pos;
+    }
+
+    private void siftUp(int pos) {
+        int blockIndex = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+            if (!above(blockIndex, heap[parent])) {
+                break;
+            }
+            place(pos, heap[parent]);
+            pos = parent;
+        }
+        place(pos, blockIndex);
+    }
+
+    private void siftDown(int pos) {
+        int blockIndex = heap[pos];
+        while (true) {
+            int left = 2 * pos + 1;
+            int right = left + 1;
+            int top = left;
+            if (left >= size) {
+                break;
+            }
+            if (right < size && above(heap[right], heap[left])) top = right;
+            if (!above(heap[top], blockIndex)) {
+                break;
+            }
+            place(pos, heap[top]);
+            pos = top;
+        }
+        place(pos, blockIndex);
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+// Free extents of an address space, ordered by start address, used to answer first-fit
+// queries for variable partitions. It is a treap: every node also holds the longest extent
+// in its subtree, so the lowest-addressed extent of at least n bytes is found by walking
+// down from the root, O(log n). Nodes live in parallel arrays and are recycled, so taking
+// and returning extents allocates nothing once the arrays have grown.
+public class FreeExtentTree {
+
+    private static final int NIL = 0;   // node 0 is the empty subtree
+
+    public int[] start;
+    public int[] length;
+    public int[] maxLength;   // longest extent in the subtree, -1 for NIL
+    public int[] left;
+    public int[] right;
+    public int[] priority;    // heap order of the treap
+    public int root;
+    public int count;         // number of free extents
+    public int nodeCount;     // nodes ever used, including recycled ones
+    public int freeNode;      // first recycled node, chained through right[]
+    public int seed;
+
+    // Results of split()
+    private int splitLeft;
+    private int splitRight;
+
+    public FreeExtentTree() {
+        start = new int[16];
+        length = new int[16];
+        maxLength = new int[16];
+        left = new int[16];
+        right = new int[16];
+        priority = new int[16];
+        clear();
+    }
+
+    // Remove every extent
+    public void clear() {
+        maxLength[NIL] = -1;
+        root = NIL;
+        count = 0;
+        nodeCount = 1;
+        freeNode = NIL;
+        seed = 0x2545f491;
+    }
+
+    // Longest free extent, or -1 if there is none
+    public int largest() {
+        return maxLength[root];
+    }
+
+    // Lowest-addressed extent of at least size bytes, or 0 if none is big enough
+    public int findFirst(int size) {
+        int node = root;
+        if (maxLength[node] < size) {
+            return NIL;
+        }
+        while (true) {
+            if (maxLength[left[node]] >= size) {
+                node = left[node];
+            } else if (length[node] >= size) {
+                return node;
+            } else {
+                node = right[node];
+            }
+        }
+    }
+
+    // Extent starting exactly at address, or 0
+    public int find(int address) {
+        int node = root;
+        while (node != NIL && start[node] != address) {
+            node = address < start[node] ? left[node] : right[node];
+        }
+        return node;
+    }
+
+    // Extent with the highest start address <= address, or 0
+    public int floor(int address) {
+        int node = root;
+        int found = NIL;
+        while (node != NIL) {
+            if (start[node] <= address) {
+                found = node;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return found;
+    }
+
+    public void add(int address, int size) {
+        int node = newNode(address, size);
+        split(root, address);
+        int after = splitRight;
+        root = merge(merge(splitLeft, node), after);
+        count++;
+    }
+
+    public void remove(int address) {
+        root = remove(root, address);
+        count--;
+    }
+
+    private int remove(int node, int address) {
+        if (node == NIL) {
+            throw new IllegalStateException("No free extent at address " + address);
+        }
+        if (start[node] == address) {
+            int merged = merge(left[node], right[node]);
+            right[node] = freeNode;
+            freeNode = node;
+            return merged;
+        }
+        if (address < start[node]) {
+            left[node] = remove(left[node], address);
+        } else {
+            right[node] = remove(right[node], address);
+        }
+        update(node);
+        return node;
+    }
+
+    // Split node's subtree into starts < address (splitLeft) and >= address (splitRight)
+    private void split(int node, int address) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (start[node] < address) {
+            split(right[node], address);
+            right[node] = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(left[node], address);
+            left[node] = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    // Join two subtrees where every start in a is below every start in b
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private void update(int node) {
+        maxLength[node] = Math.max(length[node], Math.max(maxLength[left[node]], maxLength[right[node]]));
+    }
+
+    private int newNode(int address, int size) {
+        int node = freeNode;
+        if (node != NIL) {
+            freeNode = right[node];
+        } else {
+            if (nodeCount == start.length) {
+                grow();
+            }
+            node = nodeCount++;
+        }
+        // xorshift priorities: cheap, and the same on every run
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        start[node] = address;
+        length[node] = size;
+        maxLength[node] = size;
+        left[node] = NIL;
+        right[node] = NIL;
+        priority[node] = seed;
+        return node;
+    }
+
+    private void grow() {
+        int n = start.length * 2;
+        start = Arrays.copyOf(start, n);
+        length = Arrays.copyOf(length, n);
+        maxLength = Arrays.copyOf(maxLength, n);
+        left = Arrays.copyOf(left, n);
+        right = Arrays.copyOf(right, n);
+        priority = Arrays.copyOf(priority, n);
+    }
+}
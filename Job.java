@@ -8,6 +8,9 @@ public class Job {
     public int startTime;           //when job started running
     public int arrivalTime;         // when job arrived to the system
     public int waitTime;            // time spent in waiting queue before start
+    public Job prevInQueue;         // links for the JobQueue this job is in
+    public Job nextInQueue;
+    public long queueSeq;           // FIFO position in the waiting queue
     
     //Constrsuctor for a new job
     public Job(int jobNum, int time, int memory) {
@@ -21,6 +24,21 @@ public class Job {
         this.arrivalTime = -1;
         this.waitTime = 0;
     }
+    // Reuse this object for another job (see JobPool), same state as the constructor gives
+    public void reset(int jobNum, int time, int memory) {
+        this.jobNumber = jobNum;
+        this.totalTime = time;
+        this.timeLeft = time;
+        this.memoryNeeded = memory;
+        this.status = "WAITING";
+        this.blockNumber = -1;
+        this.startTime = -1;
+        this.arrivalTime = -1;
+        this.waitTime = 0;
+        this.prevInQueue = null;
+        this.nextInQueue = null;
+        this.queueSeq = 0;
+    }
     public void tick() {  //tick is a time unit
         if (status.equals("RUNNING") && timeLeft > 0) { //checks if the job status is running and the time left is greater than 0
             timeLeft--;
@@ -44,4 +62,7 @@ public class Job {
     public boolean isDone() {  //checks is a job has finished
         return status.equals("DONE");
     }
+    public int finishTime() {  // tick at which a running job completes
+        return startTime + totalTime;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+// Bounded free list of Job objects. A simulator with a pool hands every finished job back
+// to it, and its job source takes the next arrivals from it, so once a run has warmed up
+// (or from the second of several back-to-back runs) arriving jobs allocate nothing.
+// Jobs beyond the capacity are left to the garbage collector. Not thread-safe: one pool
+// per simulator thread.
+public class JobPool {
+
+    public Job[] free;
+    public int count;
+
+    public JobPool(int capacity) {
+        free = new Job[capacity];
+        count = 0;
+    }
+
+    // A job in the same state as new Job(jobNumber, time, memory)
+    public Job acquire(int jobNumber, int time, int memory) {
+        if (count == 0) {
+            return new Job(jobNumber, time, memory);
+        }
+        Job job = free[--count];
+        free[count] = null;
+        job.reset(jobNumber, time, memory);
+        return job;
+    }
+
+    // Hand back a job nothing refers to any more
+    public void release(Job job) {
+        if (count < free.length) {
+            free[count++] = job;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+}
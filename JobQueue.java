@@ -0,0 +1,67 @@
+// FIFO queue of jobs linked through the jobs themselves (Job.prevInQueue / nextInQueue).
+// Adding at the tail and removing any job are O(1) and allocate nothing.
+// A job can only be in one JobQueue at a time.
+//
+// Iterate front to back like this (safe even if the current job gets removed):
+//   Job next;
+//   for (Job job = queue.head; job != null; job = next) {
+//       next = job.nextInQueue;
+//       ...
+//   }
+public class JobQueue {
+
+    public Job head;
+    public Job tail;
+    public int count;
+
+    public JobQueue() {
+        this.head = null;
+        this.tail = null;
+        this.count = 0;
+    }
+
+    // Append a job at the back of the queue
+    public void add(Job job) {
+        job.prevInQueue = tail;
+        job.nextInQueue = null;
+        if (tail != null) {
+            tail.nextInQueue = job;
+        } else {
+            head = job;
+        }
+        tail = job;
+        count++;
+    }
+
+    // Unlink a job that is currently in this queue
+    public void remove(Job job) {
+        if (job.prevInQueue != null) {
+            job.prevInQueue.nextInQueue = job.nextInQueue;
+        } else {
+            head = job.nextInQueue;
+        }
+        if (job.nextInQueue != null) {
+            job.nextInQueue.prevInQueue = job.prevInQueue;
+        } else {
+            tail = job.prevInQueue;
+        }
+        job.prevInQueue = null;
+        job.nextInQueue = null;
+        count--;
+    }
+
+    // Forget every job (their links are cleared when they are queued again)
+    public void clear() {
+        head = null;
+        tail = null;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+}
@@ -0,0 +1,52 @@
+// Bounded single-producer, single-consumer queue of jobs with no locks: the producer only
+// writes tail, the consumer only writes head, and the volatile writes publish the slots.
+// Used by ShardedSimulation to hand arriving jobs from the dispatcher to a pool's worker.
+public class JobRing {
+
+    public final Job[] slots;
+    public final int mask;
+    public volatile long head;     // next slot to read, written by the consumer only
+    public volatile long tail;     // next slot to write, written by the producer only
+
+    // capacity is rounded up to a power of two
+    public JobRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Job[size];
+        mask = size - 1;
+        head = 0;
+        tail = 0;
+    }
+
+    // Producer side. Returns false if the ring is full.
+    public boolean offer(Job job) {
+        long t = tail;
+        if (t - head == slots.length) {
+            return false;
+        }
+        slots[(int) t & mask] = job;
+        tail = t + 1;
+        return true;
+    }
+
+    // Consumer side. Returns null if the ring is empty.
+    public Job poll() {
+        long h = head;
+        if (h == tail) {
+            return null;
+        }
+        int i = (int) h & mask;
+        Job job = slots[i];
+        slots[i] = null;
+        head = h + 1;
+        return job;
+    }
+
+    // Either side; only a hint while the other side is running
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+}
@@ -0,0 +1,19 @@
+// Supplies arriving jobs to a simulator in arrival order.
+// The simulator admits every job whose arrival time has been reached at the start of a tick,
+// so sources can stream jobs lazily instead of building the whole table up front.
+public interface JobSource {
+    boolean hasNext();
+    int nextArrivalTime();   // arrival tick of the next job (only valid if hasNext())
+    Job next();
+
+    // Take Job objects from a pool instead of allocating them (sources that build jobs override this)
+    default void setJobPool(JobPool pool) {
+    }
+
+    // Drop the next count jobs, e.g. the ones a restored checkpoint has already admitted
+    default void skip(long count) {
+        for (long i = 0; i < count && hasNext(); i++) {
+            next();
+        }
+    }
+}
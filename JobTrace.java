@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// A job stream that several simulators can replay, each through its own cursor(), so the
+// trace can be shared between threads without locking. The trace is decoded once, and
+// every cursor only reads it:
+//   - a table goes into plain int arrays;
+//   - a trace file goes into read-only IntBuffers in the binary trace layout, four ints
+//     [arrivalTime, jobNumber, time, size] per record. A binary file is that layout already
+//     and is memory-mapped as it is; a CSV file is parsed once into direct buffers. Either
+//     way the records live outside the heap, and cursors only use absolute reads.
+public class JobTrace {
+
+    public static final int FIELDS = 4;
+    public static final int CHUNK_SHIFT = 24;          // records per buffer: 2^24 (256 MB)
+    public static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    public final int[] arrivalTimes;     // null for a file trace
+    public final int[] jobNumbers;
+    public final int[] times;
+    public final int[] sizes;
+    public final int length;
+    public final IntBuffer[] records;    // file trace, CHUNK_RECORDS records per buffer; null for arrays
+
+    public JobTrace(int[] arrivalTimes, int[] jobNumbers, int[] times, int[] sizes, int length) {
+        this.arrivalTimes = arrivalTimes;
+        this.jobNumbers = jobNumbers;
+        this.times = times;
+        this.sizes = sizes;
+        this.length = length;
+        this.records = null;
+    }
+
+    private JobTrace(IntBuffer[] records, int length) {
+        this.arrivalTimes = null;
+        this.jobNumbers = null;
+        this.times = null;
+        this.sizes = null;
+        this.length = length;
+        this.records = records;
+    }
+
+    // A [jobNumber, time, size] table, one arrival per tick like ArrayJobSource
+    public static JobTrace fromTable(int[][] jobs) {
+        int n = jobs.length;
+        int[] arrivals = new int[n];
+        int[] numbers = new int[n];
+        int[] times = new int[n];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            arrivals[i] = i;
+            numbers[i] = jobs[i][0];
+            times[i] = jobs[i][1];
+            sizes[i] = jobs[i][2];
+        }
+        return new JobTrace(arrivals, numbers, times, sizes, n);
+    }
+
+    // A trace file in the TraceJobSource format: [arrivalTime, jobNumber, time, size]
+    public static JobTrace fromFile(Path path) throws IOException {
+        if (path.toString().toLowerCase().endsWith(".csv")) {
+            return decodeCsv(path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long recordBytes = FIELDS * 4L;
+            long count = channel.size() / recordBytes;   // a trailing partial record is ignored
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Job trace has more than " + Integer.MAX_VALUE + " records: " + path);
+            }
+            IntBuffer[] chunks = new IntBuffer[(int) ((count + CHUNK_RECORDS - 1) >>> CHUNK_SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long first = (long) c << CHUNK_SHIFT;
+                long size = Math.min(CHUNK_RECORDS, count - first) * recordBytes;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, first * recordBytes, size)
+                    .order(ByteOrder.BIG_ENDIAN).asIntBuffer().asReadOnlyBuffer();
+            }
+            return new JobTrace(chunks, (int) count);
+        }
+    }
+
+    // Parse a CSV trace once into direct buffers of binary records
+    private static JobTrace decodeCsv(Path path) throws IOException {
+        ArrayList<IntBuffer> chunks = new ArrayList<>();
+        long count = 0;
+        try (MappedTraceReader reader = new MappedTraceReader(path, FIELDS)) {
+            // a CSV record takes at least 8 bytes ("0,0,0,0\n"), which bounds the first buffer
+            long maxRecords = reader.fileSize / 8 + 1;
+            int[] fields = new int[FIELDS];
+            IntBuffer chunk = null;
+            while (reader.readRecord(fields)) {
+                if (chunk == null || !chunk.hasRemaining()) {
+                    if (count == Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Job trace has more than " + Integer.MAX_VALUE + " records: " + path);
+                    }
+                    int capacity = (int) Math.min(CHUNK_RECORDS, maxRecords - count);
+                    chunk = ByteBuffer.allocateDirect(capacity * FIELDS * 4).asIntBuffer();
+                    chunks.add(chunk);
+                }
+                chunk.put(fields);
+                count++;
+            }
+        }
+        IntBuffer[] readOnly = new IntBuffer[chunks.size()];
+        for (int c = 0; c < readOnly.length; c++) {
+            readOnly[c] = chunks.get(c).asReadOnlyBuffer();
+        }
+        return new JobTrace(readOnly, (int) count);
+    }
+
+    // A fresh reader positioned at the first job
+    public JobSource cursor() {
+        return records != null ? new RecordCursor() : new Cursor();
+    }
+
+    class Cursor implements JobSource {
+        int position = 0;
+        JobPool pool;
+
+        @Override
+        public boolean hasNext() {
+            return position < length;
+        }
+
+        @Override
+        public int nextArrivalTime() {
+            return arrivalTimes[position];
+        }
+
+        @Override
+        public Job next() {
+            int i = position++;
+            return pool != null ? pool.acquire(jobNumbers[i], times[i], sizes[i]) : new Job(jobNumbers[i], times[i], sizes[i]);
+        }
+
+        @Override
+        public void setJobPool(JobPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void skip(long count) {
+            position = (int) Math.min(length, position + count);
+        }
+    }
+
+    // Reads the shared records of a file trace; the buffers' positions are never touched
+    class RecordCursor extends Cursor {
+
+        private int field(int record, int field) {
+            return records[record >>> CHUNK_SHIFT].get((record & (CHUNK_RECORDS - 1)) * FIELDS + field);
+        }
+
+        @Override
+        public int nextArrivalTime() {
+            return field(position, 0);
+        }
+
+        @Override
+        public Job next() {
+            int i = position++;
+            int jobNumber = field(i, 1);
+            int time = field(i, 2);
+            int size = field(i, 3);
+            return pool != null ? pool.acquire(jobNumber, time, size) : new Job(jobNumber, time, size);
+        }
+    }
+}
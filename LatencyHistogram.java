@@ -0,0 +1,150 @@
+// Fixed-memory histogram of non-negative integer values (ticks, queue lengths), laid out
+// like HdrHistogram: values are grouped into power-of-two buckets, and each bucket is split
+// into the same number of linear sub-buckets, so every recorded value keeps the requested
+// number of significant decimal digits. Values below the sub-bucket count are exact.
+//
+// All memory is allocated in the constructor; recordValue() only increments a counter,
+// so recording from the simulation loop creates no garbage. Histograms built with the
+// same settings can be merged with add(), e.g. to combine runs from a ParameterSweep.
+public class LatencyHistogram {
+
+    public long highestTrackableValue;
+    public int significantDigits;
+    public int subBucketHalfCountMagnitude;
+    public int subBucketHalfCount;
+    public long subBucketMask;
+    public int bucketCount;
+    public long[] counts;
+    public long totalCount;
+    public long maxValue;
+    public long minValue;
+
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least 2");
+        }
+        if (significantDigits < 0 || significantDigits > 5) {
+            throw new IllegalArgumentException("significantDigits must be between 0 and 5");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        // Smallest power of two that can tell apart 2 * 10^digits values
+        long largestSingleUnitValue = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestSingleUnitValue) / Math.log(2));
+        subBucketHalfCountMagnitude = Math.max(subBucketCountMagnitude, 1) - 1;
+        int subBucketCount = 1 << (subBucketHalfCountMagnitude + 1);
+        subBucketHalfCount = subBucketCount / 2;
+        subBucketMask = subBucketCount - 1;
+
+        // Number of power-of-two buckets needed to reach highestTrackableValue
+        long smallestUntrackableValue = subBucketCount;
+        bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        counts = new long[(bucketCount + 1) * subBucketHalfCount];
+        reset();
+    }
+
+    // Ticks and queue lengths in this simulator are ints; two digits keeps ~1% precision
+    public LatencyHistogram() {
+        this(Integer.MAX_VALUE, 2);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        totalCount = 0;
+        maxValue = 0;
+        minValue = Long.MAX_VALUE;
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = (64 - subBucketHalfCountMagnitude - 1) - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    // Lowest value that falls into counts[index]
+    private long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex) << bucketIndex;
+    }
+
+    // Highest value that falls into counts[index]
+    private long highestValueFromIndex(int index) {
+        int bucketIndex = Math.max((index >> subBucketHalfCountMagnitude) - 1, 0);
+        return valueFromIndex(index) + (1L << bucketIndex) - 1;
+    }
+
+    public void recordValue(long value) {
+        recordValueWithCount(value, 1);
+    }
+
+    // Record the same value several times, e.g. one queue length for a run of idle ticks.
+    // Negative values count as 0 and values above highestTrackableValue as that maximum.
+    public void recordValueWithCount(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        if (value < 0) value = 0;
+        if (value > highestTrackableValue) value = highestTrackableValue;
+        counts[countsIndex(value)] += count;
+        totalCount += count;
+        if (value > maxValue) maxValue = value;
+        if (value < minValue) minValue = value;
+    }
+
+    // Fold another histogram with the same settings into this one
+    public void add(LatencyHistogram other) {
+        if (other.counts.length != counts.length || other.subBucketHalfCount != subBucketHalfCount) {
+            throw new IllegalArgumentException("Histograms have different settings and cannot be merged");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        if (other.maxValue > maxValue) maxValue = other.maxValue;
+        if (other.minValue < minValue) minValue = other.minValue;
+    }
+
+    public long getTotalCount() { return totalCount; }
+    public long getMaxValue() { return maxValue; }
+    public long getMinValue() { return totalCount > 0 ? minValue : 0; }
+
+    // Smallest recorded value (to histogram precision) that percentile% of the samples are at or below
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        long countAtPercentile = Math.max(1, (long) Math.ceil((p / 100.0) * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= countAtPercentile) {
+                return Math.min(highestValueFromIndex(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    // One report line: "<label>: p50 .., p90 .., p99 .., p99.9 .., max .."
+    public String formatPercentiles(String label) {
+        return String.format("%s: p50 %d, p90 %d, p99 %d, p99.9 %d, max %d (%d samples)\n", label,
+            getValueAtPercentile(50.0), getValueAtPercentile(90.0), getValueAtPercentile(99.0),
+            getValueAtPercentile(99.9), getMaxValue(), getTotalCount());
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+// Runs two allocation policies side by side over the same job stream and reports, tick by
+// tick, where they part ways:
+//   - queue length delta     (waiting jobs of A minus waiting jobs of B after loading)
+//   - fragmentation delta    (internal fragmentation % of A minus that of B)
+//   - placement differences  (jobs loaded into a different block, or at a different tick)
+//
+// Both simulators read the JobTrace through their own cursor over the same decoded
+// records. Each simulator runs on its own thread for CHUNK_TICKS ticks, recording what it
+// did; the two threads then meet at a barrier, the chunk is compared, and both go on.
+// A simulator that finishes early just reports an empty queue for the remaining ticks.
+//
+// Usage: java LockstepComparison [first-fit] [best-fit] [trace=path] [csv=path]
+public class LockstepComparison {
+
+    public static final int CHUNK_TICKS = 4096;
+
+    public SimulationEngine simA;
+    public SimulationEngine simB;
+    public PrintWriter perTick;       // one CSV line per tick, null for the summary only
+
+    // Totals over the whole run
+    public int ticksCompared;
+    public int ticksDiverged;         // ticks with any queue or placement difference
+    public int maxQueueDelta;         // largest |delta|
+    public long queueDeltaSum;        // sum of |delta|
+    public double maxFragDelta;       // largest |delta|, percentage points
+    public double fragDeltaSum;
+    public long placementDiffs;
+
+    private Recorder recorderA;
+    private Recorder recorderB;
+    private volatile boolean finished;
+    private Throwable failure;
+
+    public LockstepComparison(String algorithmA, String algorithmB, JobTrace trace) {
+        this(algorithmA, algorithmB, trace, null);
+    }
+
+    // blocks: [blockNumber, size] table for both simulators, null for the built-in one
+    public LockstepComparison(String algorithmA, String algorithmB, JobTrace trace, int[][] blocks) {
+        simA = SimulationEngine.create(algorithmA);
+        simB = SimulationEngine.create(algorithmB);
+        if (blocks != null) {
+            simA.allBlocks = blocks;
+            simB.allBlocks = blocks;
+        }
+        simA.setJobSource(trace.cursor());
+        simB.setJobSource(trace.cursor());
+        simA.setup();
+        simB.setup();
+        recorderA = new Recorder(simA);
+        recorderB = new Recorder(simB);
+        simA.setListener(recorderA);
+        simB.setListener(recorderB);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String a = "first-fit";
+        String b = "best-fit";
+        String tracePath = null;
+        String csvPath = null;
+        int names = 0;
+        for (String arg : args) {
+            if (arg.startsWith("trace=")) {
+                tracePath = arg.substring(6);
+            } else if (arg.startsWith("csv=")) {
+                csvPath = arg.substring(4);
+            } else if (names++ == 0) {
+                a = arg;
+            } else {
+                b = arg;
+            }
+        }
+
+        JobTrace trace = tracePath != null
+            ? JobTrace.fromFile(Paths.get(tracePath))
+            : JobTrace.fromTable(SimulationEngine.create(a).allJobs);
+        LockstepComparison comparison = new LockstepComparison(a, b, trace);
+        if (csvPath != null) {
+            try (PrintWriter out = new PrintWriter(csvPath)) {
+                comparison.perTick = out;
+                comparison.run();
+            }
+        } else {
+            comparison.run();
+        }
+        System.out.print(comparison.getSummary());
+    }
+
+    // Run both simulators to completion
+    public void run() {
+        if (perTick != null) {
+            perTick.println("tick,queueA,queueB,queueDelta,fragA,fragB,fragDelta,placementDiffs");
+        }
+        CyclicBarrier barrier = new CyclicBarrier(2, new Runnable() {
+            @Override
+            public void run() {
+                compareChunk();
+                finished = simA.isDone() && simB.isDone();
+                recorderA.clear();
+                recorderB.clear();
+            }
+        });
+        Thread threadA = new Thread(() -> drive(recorderA, barrier), "lockstep-" + simA.getAlgorithmName());
+        Thread threadB = new Thread(() -> drive(recorderB, barrier), "lockstep-" + simB.getAlgorithmName());
+        threadA.start();
+        threadB.start();
+        try {
+            threadA.join();
+            threadB.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing", e);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Lockstep run failed", failure);
+        }
+    }
+
+    private void drive(Recorder recorder, CyclicBarrier barrier) {
+        try {
+            while (!finished) {
+                for (int i = 0; i < CHUNK_TICKS; i++) {
+                    if (recorder.sim.isDone()) {
+                        recorder.idleTick();
+                    } else {
+                        recorder.sim.runTick();
+                    }
+                }
+                barrier.await();
+            }
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // the other side failed, it has recorded why
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (failure == null) failure = e;
+            }
+            barrier.reset();  // wake the other thread
+        }
+    }
+
+    // Compare one chunk, tick by tick (runs on whichever thread reached the barrier last)
+    private void compareChunk() {
+        // ticks after both runs have finished are not compared
+        int ticks = Math.max(recorderA.ranTicks, recorderB.ranTicks);
+        for (int t = 0; t < ticks; t++) {
+            int queueDelta = recorderA.queueLengths[t] - recorderB.queueLengths[t];
+            double fragA = recorderA.fragPercent(t);
+            double fragB = recorderB.fragPercent(t);
+            double fragDelta = fragA - fragB;
+            int diffs = placementDiffs(t);
+
+            ticksCompared++;
+            if (queueDelta != 0 || diffs != 0) ticksDiverged++;
+            maxQueueDelta = Math.max(maxQueueDelta, Math.abs(queueDelta));
+            queueDeltaSum += Math.abs(queueDelta);
+            maxFragDelta = Math.max(maxFragDelta, Math.abs(fragDelta));
+            fragDeltaSum += Math.abs(fragDelta);
+            placementDiffs += diffs;
+
+            if (perTick != null) {
+                perTick.println(String.format("%d,%d,%d,%d,%.2f,%.2f,%.2f,%d",
+                    recorderA.firstTick + t, recorderA.queueLengths[t], recorderB.queueLengths[t], queueDelta,
+                    fragA, fragB, fragDelta, diffs));
+            }
+        }
+    }
+
+    // Jobs loaded in this tick by one policy but not the other, or into a different block.
+    // Loads are (jobNumber << 32 | blockNumber), so after sorting each job's load sits at the
+    // same place in both lists and a job placed differently is counted once, not twice.
+    private int placementDiffs(int t) {
+        long[] a = recorderA.loads;
+        long[] b = recorderB.loads;
+        int i = recorderA.loadStart[t], endA = recorderA.loadStart[t + 1];
+        int j = recorderB.loadStart[t], endB = recorderB.loadStart[t + 1];
+        Arrays.sort(a, i, endA);
+        Arrays.sort(b, j, endB);
+        int diffs = 0;
+        while (i < endA && j < endB) {
+            long jobA = a[i] >> 32;
+            long jobB = b[j] >> 32;
+            if (jobA == jobB) {
+                if (a[i] != b[j]) diffs++;
+                i++;
+                j++;
+            } else if (jobA < jobB) {
+                i++;
+                diffs++;
+            } else {
+                j++;
+                diffs++;
+            }
+        }
+        return diffs + (endA - i) + (endB - j);
+    }
+
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(simA.getAlgorithmName()).append(" vs ").append(simB.getAlgorithmName()).append("\n");
+        sb.append("Ticks compared: ").append(ticksCompared).append("\n");
+        sb.append(String.format("Ticks diverged: %d (%.1f%%)\n", ticksDiverged,
+            ticksCompared > 0 ? ticksDiverged * 100.0 / ticksCompared : 0.0));
+        sb.append(String.format("Queue length delta: avg %.2f, max %d\n",
+            ticksCompared > 0 ? (queueDeltaSum * 1.0) / ticksCompared : 0.0, maxQueueDelta));
+        sb.append(String.format("Internal fragmentation delta: avg %.2f, max %.2f points\n",
+            ticksCompared > 0 ? fragDeltaSum / ticksCompared : 0.0, maxFragDelta));
+        sb.append("Placement differences: ").append(placementDiffs).append("\n");
+        sb.append(String.format("Finished at tick: %d / %d\n", simA.getTime(), simB.getTime()));
+        return sb.toString();
+    }
+
+    // Records one simulator's chunk: queue length and fragmentation at the end of every
+    // tick, and every load as (jobNumber << 32 | blockNumber), grouped by tick
+    static class Recorder implements SimulationListener {
+        SimulationEngine sim;
+        int firstTick;
+        int ticks;
+        int ranTicks;           // ticks in this chunk before the run finished
+        int[] queueLengths = new int[CHUNK_TICKS];
+        long[] wastedBytes = new long[CHUNK_TICKS];
+        long[] capacityBytes = new long[CHUNK_TICKS];
+        int[] loadStart = new int[CHUNK_TICKS + 1];
+        long[] loads = new long[1024];
+        int loadCount;
+
+        Recorder(SimulationEngine sim) {
+            this.sim = sim;
+            this.firstTick = sim.getTime();
+        }
+
+        void clear() {
+            firstTick += ticks;
+            ticks = 0;
+            ranTicks = 0;
+            loadCount = 0;
+        }
+
+        double fragPercent(int t) {
+            return capacityBytes[t] > 0 ? (wastedBytes[t] * 100.0) / capacityBytes[t] : 0.0;
+        }
+
+        // A tick after this simulator finished: nothing waiting, nothing loaded
+        void idleTick() {
+            loadStart[ticks] = loadCount;
+            queueLengths[ticks] = 0;
+            wastedBytes[ticks] = 0;
+            capacityBytes[ticks] = 0;
+            ticks++;
+            loadStart[ticks] = loadCount;
+        }
+
+        @Override
+        public void tickStarted(int time) {
+            loadStart[ticks] = loadCount;
+        }
+
+        @Override
+        public void jobLoaded(Job job, MemoryBlock block) {
+            if (loadCount == loads.length) {
+                loads = Arrays.copyOf(loads, loadCount * 2);
+            }
+            loads[loadCount++] = ((long) job.jobNumber << 32) | (block.blockNumber & 0xffffffffL);
+        }
+
+        @Override
+        public void tickEnded(int time) {
+            queueLengths[ticks] = sim.getWaitingCount();
+            wastedBytes[ticks] = sim.occupiedWastedBytes;
+            capacityBytes[ticks] = sim.occupiedCapacityBytes;
+            ticks++;
+            ranTicks = ticks;
+            loadStart[ticks] = loadCount;
+        }
+
+        @Override
+        public boolean wantsWaitingEvents() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+// Keeps the last `capacity` log lines, dropping the oldest ones, so a long run cannot
+// grow the GUI log without bound. The simulation thread appends and the GUI reads;
+// both sides take the buffer's lock only for the copy itself.
+public class LogRingBuffer {
+
+    public String[] lines;
+    public int first;              // index of the oldest line
+    public int count;
+    public StringBuilder partial;  // text after the last newline, not a full line yet
+    public long version;           // bumped on every change, so readers can skip unchanged frames
+
+    public LogRingBuffer(int capacity) {
+        lines = new String[capacity];
+        first = 0;
+        count = 0;
+        partial = new StringBuilder();
+        version = 0;
+    }
+
+    // Append text, which may hold any number of lines
+    public synchronized void append(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) >= 0) {
+            partial.append(text, start, newline);
+            addLine(partial.toString());
+            partial.setLength(0);
+            start = newline + 1;
+        }
+        partial.append(text, start, text.length());
+        version++;
+    }
+
+    private void addLine(String line) {
+        if (count < lines.length) {
+            lines[(first + count) % lines.length] = line;
+            count++;
+        } else {
+            lines[first] = line;
+            first = (first + 1) % lines.length;
+        }
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = null;
+        }
+        first = 0;
+        count = 0;
+        partial.setLength(0);
+        version++;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Everything still in the buffer, oldest line first
+    public synchronized String getText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(lines[(first + i) % lines.length]).append('\n');
+        }
+        sb.append(partial);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// Reads fixed-width integer records from a trace file through a memory-mapped window
+// that slides along the file, so traces far bigger than the heap (or than the 2 GB limit
+// of a single mapping) can be streamed.
+//
+// Two formats are supported:
+//   - *.csv : one record per line, fields separated by commas. Blank lines and lines
+//             starting with '#' or a letter (e.g. a header) are skipped.
+//   - other : binary, every record is fieldsPerRecord big-endian 32-bit ints.
+public class MappedTraceReader implements Closeable {
+
+    public static final long WINDOW_SIZE = 64L * 1024 * 1024;  // bytes mapped at a time
+
+    // parseLine results
+    private static final int LINE_OK = 0;
+    private static final int LINE_SKIPPED = 1;
+    private static final int LINE_SPLIT = 2;   // ran off the end of the window mid-line
+    private static final int END_OF_FILE = 3;
+
+    public FileChannel channel;
+    public long fileSize;
+    public boolean binary;
+    public int fieldsPerRecord;
+    public MappedByteBuffer window;
+    public long windowStart;       // file offset of window position 0
+    public long windowSize;
+
+    public MappedTraceReader(Path path, int fieldsPerRecord) throws IOException {
+        this(path, fieldsPerRecord, WINDOW_SIZE);
+    }
+
+    public MappedTraceReader(Path path, int fieldsPerRecord, long windowSize) throws IOException {
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.binary = !path.toString().toLowerCase().endsWith(".csv");
+        this.fieldsPerRecord = fieldsPerRecord;
+        mapAt(0);
+    }
+
+    // Map the next window, starting at the given file offset
+    private void mapAt(long offset) throws IOException {
+        long size = Math.min(windowSize, fileSize - offset);
+        if (binary) {
+            // keep windows on a record boundary so a record never straddles two windows
+            long recordBytes = fieldsPerRecord * 4L;
+            if (size > recordBytes) {
+                size -= size % recordBytes;
+            }
+        }
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    }
+
+    private long position() {
+        return windowStart + window.position();
+    }
+
+    // Read the next record into fields. Returns false once the file is exhausted.
+    public boolean readRecord(int[] fields) throws IOException {
+        if (binary) {
+            int recordBytes = fieldsPerRecord * 4;
+            if (window.remaining() < recordBytes) {
+                long pos = position();
+                if (fileSize - pos < recordBytes) {
+                    return false;  // a trailing partial record is ignored
+                }
+                mapAt(pos);
+            }
+            for (int i = 0; i < fieldsPerRecord; i++) {
+                fields[i] = window.getInt();
+            }
+            return true;
+        }
+
+        while (true) {
+            long lineStart = position();
+            int result = parseLine(fields, lineStart);
+            if (result == LINE_OK) {
+                return true;
+            } else if (result == END_OF_FILE) {
+                return false;
+            } else if (result == LINE_SPLIT) {
+                if (windowStart == lineStart) {
+                    throw new IOException("Trace line at byte " + lineStart + " is longer than the mapping window");
+                }
+                mapAt(lineStart);  // start the next window at the broken line and parse it again
+            }
+        }
+    }
+
+    // Parse one CSV line straight from the mapped bytes, without building Strings
+    private int parseLine(int[] fields, long lineStart) throws IOException {
+        if (!window.hasRemaining()) {
+            return lineStart >= fileSize ? END_OF_FILE : LINE_SPLIT;
+        }
+        int field = 0;
+        int value = 0;
+        boolean inNumber = false;
+        boolean sawData = false;
+        boolean skip = false;
+        while (true) {
+            if (!window.hasRemaining()) {
+                if (windowStart + window.limit() < fileSize) {
+                    return LINE_SPLIT;
+                }
+                break;  // last line of the file has no newline
+            }
+            byte b = window.get();
+            if (b == '\n') {
+                break;
+            }
+            if (skip || b == '\r' || b == ' ' || b == '\t') {
+                continue;
+            }
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                inNumber = true;
+                sawData = true;
+            } else if (b == ',') {
+                if (field < fieldsPerRecord) fields[field] = value;
+                field++;
+                value = 0;
+                inNumber = false;
+                sawData = true;
+            } else if (!sawData && (b == '#' || Character.isLetter(b))) {
+                skip = true;  // comment or header line
+            } else {
+                throw new IOException("Unexpected character '" + (char) b + "' in trace line at byte " + lineStart);
+            }
+        }
+        if (skip || !sawData) {
+            return LINE_SKIPPED;
+        }
+        if (inNumber || field > 0) {
+            if (field < fieldsPerRecord) fields[field] = value;
+            field++;
+        }
+        if (field != fieldsPerRecord) {
+            throw new IOException("Trace line at byte " + lineStart + " has " + field
+                + " fields, expected " + fieldsPerRecord);
+        }
+        return LINE_OK;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Load a block table [blockNumber, size] from a trace file, for use as allBlocks in setup()
+    public static int[][] loadBlocks(Path path) throws IOException {
+        ArrayList<int[]> blocks = new ArrayList<>();
+        try (MappedTraceReader reader = new MappedTraceReader(path, 2)) {
+            int[] fields = new int[2];
+            while (reader.readRecord(fields)) {
+                blocks.add(new int[] {fields[0], fields[1]});
+            }
+        }
+        return blocks.toArray(new int[0][]);
+    }
+}
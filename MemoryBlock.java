@@ -1,6 +1,7 @@
 public class MemoryBlock {
     public int blockNumber;         // Block ID (1-10)
     public int blockSize;           // How big this block is
+    public int blockIndex;          // position in the simulator's block list (used for tie-breaking)
     public Job currentJob;          // Job using this block (
     public boolean isEmpty;         
     // Metrics
@@ -12,6 +13,17 @@ public class MemoryBlock {
     public MemoryBlock(int number, int size) { //constructor 
         this.blockNumber = number;
         this.blockSize = size;
+        this.blockIndex = -1;
+        this.currentJob = null;
+        this.isEmpty = true;
+        this.timeUsedTicks = 0;
+        this.timesAssigned = 0;
+        this.maxUtilization = 0;
+    }
+    public void reset(int number, int size) { // reuse this block for a new run, same state as the constructor gives
+        this.blockNumber = number;
+        this.blockSize = size;
+        this.blockIndex = -1;
         this.currentJob = null;
         this.isEmpty = true;
         this.timeUsedTicks = 0;
@@ -1,9 +1,14 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 public class MemorySimulatorGUI extends JFrame {
 
+    public static final int FRAME_RATE = 30;      // display refreshes per second
+    public static final int LOG_LINES = 5000;     // log lines kept for the log view
+    public static final int JOB_POOL_SIZE = 1024; // finished jobs kept for reuse by each simulator
+    public static final String[] SPEED_NAMES = {"Full speed", "10 ticks/s", "1 tick/s", "2 s/tick"};
+    public static final int[] SPEED_DELAYS = {0, 100, 1000, 2000};  // ms between ticks
+
     public JPanel leftPanel;           
     public JPanel centerPanel;         
     public JTextArea logArea;          
@@ -18,20 +23,31 @@ public class MemorySimulatorGUI extends JFrame {
     public JButton startBestFitButton;   
     public JButton pauseButton;
     public JButton stepButton;
-    public Timer timer;
-    public ArrayList<BlockPanel> blockPanels;
+    public JComboBox<String> speedBox;
+    public Timer frameTimer;               // refreshes the display from the latest snapshot
+    public SimulationRunner runner;        // runs the current simulator on its own thread
+    public LogRingBuffer logBuffer;        // last LOG_LINES lines of the log
+    public long shownLogVersion;
+    public SimulationStats shownStats;     // snapshot currently on screen
+    public boolean completionShown;
+    public BlockCanvas blockCanvas;        // draws every block from the latest snapshot
+    public JButton zoomInButton;
+    public JButton zoomOutButton;
     public MemorySimulator firstFitSim;      // First-fit simulator
     public BestFitMemorySimulator bestFitSim; // Best-fit simulator
-    public Object currentSim;  // Reference to currently active simulator
+    public SimulationEngine currentSim;  // Reference to currently active simulator
     public String currentAlgorithm;  // Track which algorithm is running
     
   
     public MemorySimulatorGUI() {
         firstFitSim = new MemorySimulator();
         bestFitSim = new BestFitMemorySimulator();
+        firstFitSim.setJobPool(new JobPool(JOB_POOL_SIZE));
+        bestFitSim.setJobPool(new JobPool(JOB_POOL_SIZE));
         currentSim = null;
         currentAlgorithm = "None";
-        blockPanels = new ArrayList<>();
+        logBuffer = new LogRingBuffer(LOG_LINES);
+        shownLogVersion = -1;
         
         // Window settings
         setTitle("Memory Allocation Simulator - First-Fit vs Best-Fit");
@@ -48,21 +64,12 @@ public class MemorySimulatorGUI extends JFrame {
         add(centerPanel, BorderLayout.CENTER);
         add(logScroll, BorderLayout.SOUTH);
         
-        // Make block visuals
-        makeBlockPanels();
+        // Show the block table, all free
+        blockCanvas.setFreeBlocks(firstFitSim.allBlocks);
         
-        // Make timer (2 seconds per tick)
-        timer = new Timer(2000, e -> {
-            step();
-            if (isCurrentSimDone()) {
-                timer.stop();
-                startFirstFitButton.setEnabled(true);
-                startBestFitButton.setEnabled(true);
-                pauseButton.setEnabled(false);
-                logArea.append("\n=== SIMULATION COMPLETE ===\n");
-                showStats();
-            }
-        });
+        // The simulation runs on its own thread; the display catches up FRAME_RATE times a second
+        frameTimer = new Timer(1000 / FRAME_RATE, e -> refresh());
+        frameTimer.start();
         
         // Show window
         pack();
@@ -93,6 +100,9 @@ public class MemorySimulatorGUI extends JFrame {
         stepButton = new JButton("Step");
         pauseButton.setEnabled(false);
         stepButton.setEnabled(false);
+        speedBox = new JComboBox<>(SPEED_NAMES);
+        speedBox.setMaximumSize(new Dimension(200, 25));
+        speedBox.setAlignmentX(Component.LEFT_ALIGNMENT);
     
         
         // Button actions
@@ -100,6 +110,9 @@ public class MemorySimulatorGUI extends JFrame {
         startBestFitButton.addActionListener(e -> startBestFit());
         pauseButton.addActionListener(e -> pause());
         stepButton.addActionListener(e -> step());
+        speedBox.addActionListener(e -> {
+            if (runner != null) runner.setTickDelay(getTickDelay());
+        });
         
         // Add everything
         leftPanel.add(Box.createVerticalStrut(10));
@@ -122,15 +135,34 @@ public class MemorySimulatorGUI extends JFrame {
         leftPanel.add(pauseButton);
         leftPanel.add(Box.createVerticalStrut(5));
         leftPanel.add(stepButton);
+        leftPanel.add(Box.createVerticalStrut(10));
+        leftPanel.add(new JLabel("Speed:"));
+        leftPanel.add(speedBox);
         leftPanel.add(Box.createVerticalGlue());
     }
     
-    // Create center panel for memory blocks
+    // Create center panel for memory blocks: one canvas for any number of blocks, with zoom
     public void makeCenterPanel() {
         centerPanel = new JPanel();
-        centerPanel.setLayout(new GridLayout(2, 5, 10, 10));  // 2 rows, 5 columns
-        centerPanel.setBorder(BorderFactory.createTitledBorder("Memory Blocks"));
+        centerPanel.setLayout(new BorderLayout());
+        centerPanel.setBorder(BorderFactory.createTitledBorder("Memory Blocks (Ctrl + wheel to zoom)"));
         centerPanel.setBackground(Color.LIGHT_GRAY);
+        
+        blockCanvas = new BlockCanvas();
+        JScrollPane blockScroll = new JScrollPane(blockCanvas);
+        blockScroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        blockScroll.getViewport().setBackground(Color.LIGHT_GRAY);
+        
+        zoomInButton = new JButton("Zoom +");
+        zoomOutButton = new JButton("Zoom -");
+        zoomInButton.addActionListener(e -> blockCanvas.zoomIn());
+        zoomOutButton.addActionListener(e -> blockCanvas.zoomOut());
+        JPanel zoomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        zoomPanel.add(zoomOutButton);
+        zoomPanel.add(zoomInButton);
+        
+        centerPanel.add(blockScroll, BorderLayout.CENTER);
+        centerPanel.add(zoomPanel, BorderLayout.SOUTH);
     }
     
     // Create log area at bottom
@@ -145,20 +177,6 @@ public class MemorySimulatorGUI extends JFrame {
         logScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
     }
     
-    // Create visual blocks
-    public void makeBlockPanels() {
-        int[][] blocks = {
-            {1, 9500}, {2, 7000}, {3, 4500}, {4, 8500}, {5, 3000},
-            {6, 9000}, {7, 1000}, {8, 5500}, {9, 1500}, {10, 500}
-        };
-        
-        for (int i = 0; i < blocks.length; i++) {
-            BlockPanel bp = new BlockPanel(blocks[i][0], blocks[i][1]);
-            blockPanels.add(bp);
-            centerPanel.add(bp);
-        }
-    }
-    
     // Start First-Fit simulation
     public void startFirstFit() {
         // Reset simulation if needed
@@ -172,8 +190,8 @@ public class MemorySimulatorGUI extends JFrame {
         
         if (!firstFitSim.isStarted()) {
             firstFitSim.setup();
-            logArea.append("=== FIRST-FIT SIMULATION STARTED ===\n");
-            logArea.append("=====================================\n");
+            logBuffer.append("=== FIRST-FIT SIMULATION STARTED ===\n");
+            logBuffer.append("=====================================\n");
         }
         
         startSimulation();
@@ -192,8 +210,8 @@ public class MemorySimulatorGUI extends JFrame {
         
         if (!bestFitSim.isStarted()) {
             bestFitSim.setup();
-            logArea.append("=== BEST-FIT SIMULATION STARTED ===\n");
-            logArea.append("====================================\n");
+            logBuffer.append("=== BEST-FIT SIMULATION STARTED ===\n");
+            logBuffer.append("====================================\n");
         }
         
         startSimulation();
@@ -201,7 +219,13 @@ public class MemorySimulatorGUI extends JFrame {
     
     // Common start logic
     private void startSimulation() {
-        timer.start();
+        if (runner == null) {
+            runner = new SimulationRunner(currentSim, logBuffer);
+            runner.setTickDelay(getTickDelay());
+            runner.start();
+        }
+        completionShown = false;
+        runner.resume();
         startFirstFitButton.setEnabled(false);
         startBestFitButton.setEnabled(false);
         pauseButton.setEnabled(true);
@@ -210,58 +234,70 @@ public class MemorySimulatorGUI extends JFrame {
     
     // Reset simulation state
     private void resetSimulation() {
-        timer.stop();
-        firstFitSim = new MemorySimulator();
-        bestFitSim = new BestFitMemorySimulator();
-        logArea.setText("");
+        if (runner != null) {
+            runner.shutdown();
+            runner = null;
+        }
+        currentSim = null;
+        shownStats = null;
+        // Reuse both simulators, their blocks and their finished jobs for the next run
+        firstFitSim.reset();
+        bestFitSim.reset();
+        logBuffer.clear();
         
         // Clear visual blocks
-        for (BlockPanel panel : blockPanels) {
-            panel.clearJob();
-        }
+        blockCanvas.setFreeBlocks(firstFitSim.allBlocks);
         
         updateDisplay();
     }
     
     // Pause button clicked
     public void pause() {
-        timer.stop();
+        if (runner != null) runner.pause();
         startFirstFitButton.setEnabled(true);
         startBestFitButton.setEnabled(true);
         pauseButton.setEnabled(false);
     }
     
-    // Step button clicked (or timer tick)
+    // Step button clicked: run one tick on the simulation thread
     public void step() {
-        if (currentSim == null) return;
-        
-        String log = "";
-        if (currentSim instanceof MemorySimulator) {
-            log = ((MemorySimulator) currentSim).runOneTick();
-        } else if (currentSim instanceof BestFitMemorySimulator) {
-            log = ((BestFitMemorySimulator) currentSim).runOneTick();
-        }
-        
-        logArea.append(log);
-        updateDisplay();
-        logArea.setCaretPosition(logArea.getDocument().getLength());
+        if (runner == null) return;
+        runner.step();
     }
     
-    // Check if current simulation is done
-    private boolean isCurrentSimDone() {
-        if (currentSim == null) return true;
-        
-        if (currentSim instanceof MemorySimulator) {
-            return ((MemorySimulator) currentSim).isDone();
-        } else if (currentSim instanceof BestFitMemorySimulator) {
-            return ((BestFitMemorySimulator) currentSim).isDone();
+    private int getTickDelay() {
+        return SPEED_DELAYS[speedBox.getSelectedIndex()];
+    }
+    
+    // Frame timer: show the newest snapshot and log, however many ticks ran since the last frame
+    public void refresh() {
+        if (runner != null) {
+            SimulationStats stats = runner.requestSnapshot();
+            if (stats != shownStats) {
+                shownStats = stats;
+                updateDisplay();
+            }
+            if (stats.done && !completionShown) {
+                // the runner thread has finished, so the simulator can be read directly now
+                completionShown = true;
+                startFirstFitButton.setEnabled(true);
+                startBestFitButton.setEnabled(true);
+                pauseButton.setEnabled(false);
+                logBuffer.append("\n=== SIMULATION COMPLETE ===\n");
+                showStats();
+            }
+        }
+        long version = logBuffer.getVersion();
+        if (version != shownLogVersion) {
+            shownLogVersion = version;
+            logArea.setText(logBuffer.getText());
+            logArea.setCaretPosition(logArea.getDocument().getLength());
         }
-        return true;
     }
     
-    // Update all displays
+    // Update all displays from the snapshot on screen
     public void updateDisplay() {
-        if (currentSim == null) {
+        if (shownStats == null) {
             timeLabel.setText("Time: 0");
             runningLabel.setText("Running: 0");
             waitingLabel.setText("Waiting: 0");
@@ -270,144 +306,29 @@ public class MemorySimulatorGUI extends JFrame {
             return;
         }
         
-        // Update labels based on current simulator
-        if (currentSim instanceof MemorySimulator) {
-            MemorySimulator sim = (MemorySimulator) currentSim;
-            timeLabel.setText("Time: " + sim.getTime());
-            runningLabel.setText("Running: " + sim.getRunningCount());
-            waitingLabel.setText("Waiting: " + sim.getWaitingCount());
-            doneLabel.setText("Done: " + sim.getDoneCount());
-            rejectedLabel.setText("Rejected: " + sim.getRejectedCount());
-            
-            // Update blocks
-            ArrayList<MemoryBlock> blocks = sim.getBlocks();
-            updateBlockPanels(blocks);
-        } else if (currentSim instanceof BestFitMemorySimulator) {
-            BestFitMemorySimulator sim = (BestFitMemorySimulator) currentSim;
-            timeLabel.setText("Time: " + sim.getTime());
-            runningLabel.setText("Running: " + sim.getRunningCount());
-            waitingLabel.setText("Waiting: " + sim.getWaitingCount());
-            doneLabel.setText("Done: " + sim.getDoneCount());
-            rejectedLabel.setText("Rejected: " + sim.getRejectedCount());
-            
-            // Update blocks
-            ArrayList<MemoryBlock> blocks = sim.getBlocks();
-            updateBlockPanels(blocks);
-        }
+        // Update labels from the snapshot
+        SimulationStats stats = shownStats;
+        timeLabel.setText("Time: " + stats.time);
+        runningLabel.setText("Running: " + stats.runningCount);
+        waitingLabel.setText("Waiting: " + stats.waitingCount);
+        doneLabel.setText("Done: " + stats.doneCount);
+        rejectedLabel.setText("Rejected: " + stats.rejectedCount);
         
-        repaint();
-    }
-    
-    // Helper method to update block panels
-    private void updateBlockPanels(ArrayList<MemoryBlock> blocks) {
-        for (int i = 0; i < blocks.size() && i < blockPanels.size(); i++) {
-            MemoryBlock block = blocks.get(i);
-            BlockPanel panel = blockPanels.get(i);
-            
-            if (!block.isEmpty) {
-                panel.setJob(block.currentJob);
-            } else {
-                panel.clearJob();
-            }
-        }
+        // Update blocks (the canvas repaints only the ones that changed)
+        blockCanvas.setStats(stats);
     }
     
     // Show final stats
     public void showStats() {
         String stats = "\n=== FINAL STATISTICS ===\n";
         stats += "Algorithm Used: " + currentAlgorithm + "\n";
-        
-        if (currentSim instanceof MemorySimulator) {
-            MemorySimulator sim = (MemorySimulator) currentSim;
-            stats += sim.getStats();
-        } else if (currentSim instanceof BestFitMemorySimulator) {
-            BestFitMemorySimulator sim = (BestFitMemorySimulator) currentSim;
-            stats += sim.getStats();
+        if (currentSim != null) {
+            stats += currentSim.getStats();
+            stats += currentSim.getPercentileStats();
         }
         
         stats += "========================\n";
-        logArea.append(stats);
-    }
-    
-    // Panel for one memory block
-    class BlockPanel extends JPanel {
-        public int blockNum;
-        public int blockSize;
-        public Job currentJob;
-        public boolean hasJob;
-        
-        public BlockPanel(int num, int size) {
-            this.blockNum = num;
-            this.blockSize = size;
-            this.hasJob = false;
-            this.currentJob = null;
-            setPreferredSize(new Dimension(120, 80));
-            setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
-        }
-        
-        public void setJob(Job job) {
-            this.currentJob = job;
-            this.hasJob = true;
-            repaint();
-        }
-        
-        public void clearJob() {
-            this.currentJob = null;
-            this.hasJob = false;
-            repaint();
-        }
-        
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            
-            // Choose color
-            Color bgColor;
-            if (hasJob && currentJob != null) {
-                // Red to green based on progress
-                float done = 1.0f - ((float)currentJob.timeLeft / currentJob.totalTime);
-                int red = (int)(255 * (1.0f - done));
-                int green = (int)(255 * done);
-                bgColor = new Color(red, green, 0);
-            } else {
-                bgColor = Color.LIGHT_GRAY;
-            }
-            
-            // Fill background
-            g.setColor(bgColor);
-            g.fillRect(0, 0, getWidth(), getHeight());
-            
-            // Draw text
-            g.setFont(new Font("SansSerif", Font.BOLD, 12));
-            FontMetrics fm = g.getFontMetrics();
-            
-            // Block info
-            String line1 = "Block " + blockNum;
-            String line2 = "Size: " + blockSize;
-            g.setColor(Color.BLACK);
-            g.drawString(line1, (getWidth() - fm.stringWidth(line1)) / 2, 20);
-            g.drawString(line2, (getWidth() - fm.stringWidth(line2)) / 2, 35);
-            
-            // Job info
-            if (hasJob && currentJob != null) {
-                // Pick text color based on background
-                float done = 1.0f - ((float)currentJob.timeLeft / currentJob.totalTime);
-                if (done > 0.5f) {
-                    g.setColor(Color.WHITE);
-                } else {
-                    g.setColor(Color.BLACK);
-                }
-                
-                String line3 = "Job " + currentJob.jobNumber;
-                String line4 = currentJob.timeLeft + "/" + currentJob.totalTime;
-                g.drawString(line3, (getWidth() - fm.stringWidth(line3)) / 2, 50);
-                g.drawString(line4, (getWidth() - fm.stringWidth(line4)) / 2, 65);
-            } else {
-                g.setColor(Color.DARK_GRAY);
-                String line3 = "FREE";
-                g.drawString(line3, (getWidth() - fm.stringWidth(line3)) / 2, 55);
-            }
-        }
+        logBuffer.append(stats);
     }
     
     // Main method
@@ -0,0 +1,53 @@
+import java.util.ArrayList;
+
+// Next-Fit: like First-Fit, but the search starts where the last one left off (a roving
+// pointer) and wraps around to the start of the block list. O(log n) with the segment tree.
+public class NextFitPolicy implements AllocationPolicy {
+
+    public ArrayList<MemoryBlock> blocks;
+    public FirstFitTree freeTree;
+    public int rover;                // block index the next search starts from
+
+    public String getName() { return "Next-Fit"; }
+    public String getLoadTag() { return " (NEXT-FIT)"; }
+    public String getWaitingReason() { return "no suitable block available"; }
+
+    public void init(ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        this.rover = 0;
+        freeTree = new FirstFitTree(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            freeTree.markFree(i, blocks.get(i).blockSize);
+        }
+    }
+
+    public int selectBlock(int memoryNeeded) {
+        int index = freeTree.findFirstFrom(rover, memoryNeeded);
+        if (index < 0) {
+            index = freeTree.findFirst(memoryNeeded);  // wrap around
+        }
+        return index;
+    }
+
+    public void blockUsed(int blockIndex) {
+        freeTree.markUsed(blockIndex);
+        rover = blockIndex + 1 < blocks.size() ? blockIndex + 1 : 0;
+    }
+
+    public void blockFreed(int blockIndex) {
+        freeTree.markFree(blockIndex, blocks.get(blockIndex).blockSize);
+    }
+
+    public int largestFree() {
+        return freeTree.largestFree();
+    }
+
+    public int[] getCheckpointState() {
+        return new int[] {rover};
+    }
+
+    public void restoreCheckpoint(ArrayList<MemoryBlock> blocks, int[] state) {
+        AllocationPolicy.super.restoreCheckpoint(blocks, state);
+        rover = state[0];  // blockUsed() moved it, put it back
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+// Block table kept outside the Java heap, for block counts where even parallel int arrays
+// make the heap (and GC pauses) too big. Every block is a fixed-stride record in a
+// ByteBuffer, so the GC sees a handful of buffer objects instead of gigabytes of arrays.
+//
+// The records are split in two:
+//   table  [blockNumber, blockSize]                                   8 bytes per block
+//   state  [jobInBlock + 1, timeUsedTicks, timesAssigned, maxUtilization]  16 bytes per block
+//
+// The table never changes during a run, so it can be memory-mapped read-only from a file
+// written by write(): opening it costs nothing up front (pages are read in on first touch)
+// and several simulator processes opening the same file share one copy in the page cache.
+// The state is private to each store and always lives in direct buffers. It is stored as
+// jobInBlock + 1 so that freshly allocated (zeroed) memory already means "all blocks empty".
+// The header also holds the largest block size and the total capacity, so a simulator
+// can start on a mapped table without reading every record.
+//
+// A single ByteBuffer is limited to 2 GB, so both parts are cut into segments of
+// SEGMENT_BLOCKS records. Direct buffers count against -XX:MaxDirectMemorySize.
+//
+// Table file layout (big-endian): magic, version, blockCount, TABLE_STRIDE, largestBlock,
+// totalCapacity (a long), then the records.
+//
+// Usage: java OffHeapBlockStore out=blocks.bin [blocks=100000000] [seed=1]
+//        (same sizes as WorkloadGenerator.makeBlocks(blocks, 500, 10000, 500, seed))
+public class OffHeapBlockStore implements Closeable {
+
+    public static final int MAGIC = 0x4d534254;      // "MSBT"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 28;
+    public static final int TABLE_STRIDE = 8;
+    public static final int STATE_STRIDE = 16;
+    public static final int SEGMENT_SHIFT = 24;      // 16M blocks per buffer
+    public static final int SEGMENT_BLOCKS = 1 << SEGMENT_SHIFT;
+    public static final int SEGMENT_MASK = SEGMENT_BLOCKS - 1;
+    public static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    // Field offsets inside a record
+    private static final int NUMBER = 0;
+    private static final int SIZE = 4;
+    private static final int JOB = 0;
+    private static final int USED_TICKS = 4;
+    private static final int ASSIGNED = 8;
+    private static final int MAX_UTIL = 12;
+
+    public int blockCount;
+    public int largestBlock;       // 0 for an empty table
+    public long totalCapacity;     // sum of the block sizes
+    public ByteBuffer[] table;
+    public ByteBuffer[] state;
+    public FileChannel channel;    // the mapped table file, null for an in-memory table
+    public boolean stateDirty;     // a job has been put in some block since the last clearState()
+
+    private OffHeapBlockStore(int blockCount) {
+        this.blockCount = blockCount;
+        int segments = (int) (((long) blockCount + SEGMENT_BLOCKS - 1) >>> SEGMENT_SHIFT);
+        this.table = new ByteBuffer[segments];
+        this.state = new ByteBuffer[segments];
+        for (int s = 0; s < segments; s++) {
+            state[s] = ByteBuffer.allocateDirect(segmentBlocks(s) * STATE_STRIDE).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private int segmentBlocks(int segment) {
+        return Math.min(SEGMENT_BLOCKS, blockCount - (segment << SEGMENT_SHIFT));
+    }
+
+    // An in-memory store for a [blockNumber, size] table
+    public static OffHeapBlockStore allocate(int[][] blocks) {
+        OffHeapBlockStore store = new OffHeapBlockStore(blocks.length);
+        for (int s = 0; s < store.table.length; s++) {
+            store.table[s] = ByteBuffer.allocateDirect(store.segmentBlocks(s) * TABLE_STRIDE).order(ByteOrder.nativeOrder());
+        }
+        for (int i = 0; i < blocks.length; i++) {
+            ByteBuffer segment = store.table[i >>> SEGMENT_SHIFT];
+            int offset = (i & SEGMENT_MASK) * TABLE_STRIDE;
+            segment.putInt(offset + NUMBER, blocks[i][0]);
+            segment.putInt(offset + SIZE, blocks[i][1]);
+            store.largestBlock = Math.max(store.largestBlock, blocks[i][1]);
+            store.totalCapacity += blocks[i][1];
+        }
+        return store;
+    }
+
+    // Map a table file written by write(). The table is read-only; the state starts empty.
+    public static OffHeapBlockStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Block table file is truncated: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a block table file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported block table version " + version);
+            }
+            int count = header.getInt();
+            if (header.getInt() != TABLE_STRIDE) {
+                throw new IOException("Unexpected record size in block table " + path);
+            }
+            int largest = header.getInt();
+            long capacity = header.getLong();
+            if (channel.size() < HEADER_BYTES + (long) count * TABLE_STRIDE) {
+                throw new IOException("Block table file is truncated: " + path);
+            }
+
+            OffHeapBlockStore store = new OffHeapBlockStore(count);
+            store.largestBlock = largest;
+            store.totalCapacity = capacity;
+            for (int s = 0; s < store.table.length; s++) {
+                long offset = HEADER_BYTES + ((long) s << SEGMENT_SHIFT) * TABLE_STRIDE;
+                store.table[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) store.segmentBlocks(s) * TABLE_STRIDE);
+            }
+            store.channel = channel;
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Write a [blockNumber, size] table to a file for open()
+    public static void write(Path path, final int[][] blocks) throws IOException {
+        write(path, blocks.length, i -> blocks[i][1], i -> blocks[i][0]);
+    }
+
+    // Write a table of count blocks numbered 1..count without building it on the heap.
+    // sizeOf is called once per block, in block order.
+    public static void write(Path path, int count, IntUnaryOperator sizeOf) throws IOException {
+        write(path, count, sizeOf, i -> i + 1);
+    }
+
+    private static void write(Path path, int count, IntUnaryOperator sizeOf, IntUnaryOperator numberOf) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // the header is written last, once the largest block and the capacity are known
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            buffer.position(HEADER_BYTES);
+            int largest = 0;
+            long capacity = 0;
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < TABLE_STRIDE) {
+                    drain(out, buffer);
+                }
+                int size = sizeOf.applyAsInt(i);
+                buffer.putInt(numberOf.applyAsInt(i));
+                buffer.putInt(size);
+                largest = Math.max(largest, size);
+                capacity += size;
+            }
+            drain(out, buffer);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(TABLE_STRIDE)
+                  .putInt(largest).putLong(capacity);
+            buffer.flip();
+            for (long position = 0; buffer.hasRemaining(); ) {
+                position += out.write(buffer, position);
+            }
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Table fields
+    public int blockNumber(int i) {
+        return table[i >>> SEGMENT_SHIFT].getInt((i & SEGMENT_MASK) * TABLE_STRIDE + NUMBER);
+    }
+
+    public int blockSize(int i) {
+        return table[i >>> SEGMENT_SHIFT].getInt((i & SEGMENT_MASK) * TABLE_STRIDE + SIZE);
+    }
+
+    // State fields
+    private int getState(int i, int field) {
+        return state[i >>> SEGMENT_SHIFT].getInt((i & SEGMENT_MASK) * STATE_STRIDE + field);
+    }
+
+    private void putState(int i, int field, int value) {
+        state[i >>> SEGMENT_SHIFT].putInt((i & SEGMENT_MASK) * STATE_STRIDE + field, value);
+    }
+
+    // Job index loaded in the block, -1 if empty
+    public int jobInBlock(int i) {
+        return getState(i, JOB) - 1;
+    }
+
+    public void setJobInBlock(int i, int job) {
+        putState(i, JOB, job + 1);
+        stateDirty = true;
+    }
+
+    public boolean isEmpty(int i) {
+        return getState(i, JOB) == 0;
+    }
+
+    public int timeUsedTicks(int i) {
+        return getState(i, USED_TICKS);
+    }
+
+    public void addTimeUsed(int i) {
+        putState(i, USED_TICKS, getState(i, USED_TICKS) + 1);
+    }
+
+    public int timesAssigned(int i) {
+        return getState(i, ASSIGNED);
+    }
+
+    // Count one more load and keep the highest utilization percentage seen
+    public void recordAssignment(int i, int utilization) {
+        putState(i, ASSIGNED, getState(i, ASSIGNED) + 1);
+        if (utilization > getState(i, MAX_UTIL)) {
+            putState(i, MAX_UTIL, utilization);
+        }
+    }
+
+    public int maxUtilization(int i) {
+        return getState(i, MAX_UTIL);
+    }
+
+    // Empty every block and zero its metrics, e.g. before reusing the store for another run.
+    // A store no job has been put in yet is still all zeroes and is left alone.
+    public void clearState() {
+        if (!stateDirty) {
+            return;
+        }
+        stateDirty = false;
+        for (ByteBuffer segment : state) {
+            for (int offset = 0; offset < segment.capacity(); offset += 8) {
+                segment.putLong(offset, 0L);
+            }
+        }
+    }
+
+    // Unmap the table file. Mapped segments are released by the GC once unreachable.
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // Write a block table file
+    public static void main(String[] args) throws IOException {
+        String out = null;
+        int blocks = 100000000;
+        long seed = 1;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "out": out = value; break;
+                case "blocks": blocks = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Usage: java OffHeapBlockStore out=blocks.bin [blocks=100000000] [seed=1]");
+        }
+
+        final Random random = new Random(seed);
+        long start = System.nanoTime();
+        write(Paths.get(out), blocks, i -> 500 + random.nextInt(20) * 500);
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        System.out.println("Wrote " + blocks + " blocks to " + out + " in " + elapsedMs + " ms");
+    }
+}
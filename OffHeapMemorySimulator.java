@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+// CompactMemorySimulator with the block table in an OffHeapBlockStore instead of int
+// arrays, for block counts whose per-block state would not fit comfortably in the heap.
+// Same rules and getStats() output; only the job arrays and the first-fit index stay on
+// the heap. To keep that index small, each leaf of freeTree covers a group of GROUP_BLOCKS
+// consecutive blocks and holds the largest free size in the group: the tree finds the
+// first group with a big enough free block, and a short scan of the group's records finds
+// the block itself, which is the same block a per-block tree would have found.
+//
+// setup() reads nothing from the table: the largest block and the capacity come from the
+// store's header, and every group starts out at the largest block size, an upper bound.
+// The first time the tree picks a group, its records are scanned for the real maximum;
+// if that is too small the search goes on with the next group. Free memory is only ever
+// under-claimed by a bound, so this finds the same first-fit block.
+//
+// Usage: java OffHeapMemorySimulator [table=blocks.bin] [blocks=1000000] [jobs=1000] [seed=1]
+//        (without table= the blocks are built in memory like WorkloadGenerator.makeBlocks)
+public class OffHeapMemorySimulator extends CompactMemorySimulator {
+
+    public static final int GROUP_SHIFT = 6;
+    public static final int GROUP_BLOCKS = 1 << GROUP_SHIFT;
+
+    public OffHeapBlockStore store;
+    public boolean[] groupExact;   // the group's tree leaf holds its real largest free size
+
+    // Blocks come from allBlocks, copied into a new off-heap store at setup()
+    public OffHeapMemorySimulator() {
+        this(null);
+    }
+
+    // Blocks come from store (e.g. a mapped table file); allBlocks is ignored
+    public OffHeapMemorySimulator(OffHeapBlockStore store) {
+        super();
+        this.store = store;
+    }
+
+    @Override
+    public void setupBlocks() {
+        if (store == null) {
+            store = OffHeapBlockStore.allocate(allBlocks);
+        }
+        store.clearState();  // every block empty, even if an earlier run used this store
+        blockCount = store.blockCount;
+        largestBlock = store.largestBlock;
+        totalBlockCapacity = store.totalCapacity;
+        freeTree = new FirstFitTree((blockCount + GROUP_BLOCKS - 1) >>> GROUP_SHIFT);
+        freeTree.fill(largestBlock);
+        groupExact = new boolean[freeTree.blockCount];
+    }
+
+    // Recompute the largest free size in one group
+    private void refreshGroup(int group) {
+        groupExact[group] = true;
+        int largest = -1;
+        int end = Math.min(blockCount, (group + 1) << GROUP_SHIFT);
+        for (int i = group << GROUP_SHIFT; i < end; i++) {
+            if (store.isEmpty(i) && store.blockSize(i) > largest) {
+                largest = store.blockSize(i);
+            }
+        }
+        freeTree.update(group, largest);
+    }
+
+    private void blockFreed(int i) {
+        int group = i >>> GROUP_SHIFT;
+        int size = store.blockSize(i);
+        if (size > freeTree.tree[freeTree.leafStart + group]) {
+            freeTree.update(group, size);
+        }
+    }
+
+    // First-Fit: lowest-indexed free block that is big enough, or -1
+    private int findFirstFree(int memoryNeeded) {
+        int group = freeTree.findFirst(memoryNeeded);
+        while (group >= 0 && !groupExact[group]) {
+            refreshGroup(group);
+            group = freeTree.findFirst(memoryNeeded);
+        }
+        if (group < 0) {
+            return -1;
+        }
+        int end = Math.min(blockCount, (group + 1) << GROUP_SHIFT);
+        for (int i = group << GROUP_SHIFT; i < end; i++) {
+            if (store.isEmpty(i) && store.blockSize(i) >= memoryNeeded) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Free-block index out of date for group " + group);
+    }
+
+    // Run one time tick (same steps as CompactMemorySimulator.runTick)
+    @Override
+    public void runTick() {
+        OffHeapBlockStore blocks = store;
+
+        // Step 1: New job arrives
+        if (nextJobNumber < jobCount) {
+            int j = nextJobNumber;
+            timeLeft[j] = totalTime[j];
+            arrivalTime[j] = currentTime;
+            startTime[j] = -1;
+            blockOf[j] = -1;
+
+            // Check if job is too big
+            if (memoryNeeded[j] > largestBlock) {
+                state[j] = REJECTED;
+                rejectedCount++;
+            } else {
+                state[j] = WAITING;
+                waiting[waitingCount++] = j;
+            }
+            nextJobNumber++;
+        }
+
+        // Step 2: Process running jobs (see CompactMemorySimulator.runTick)
+        int r = 0;
+        while (r < runningCount) {
+            int j = running[r];
+            int i = blockOf[j];
+            blocks.addTimeUsed(i);
+            timeLeft[j]--;
+
+            // Check if job finished
+            if (timeLeft[j] == 0) {
+                int size = blocks.blockSize(i);
+                state[j] = DONE;
+                blockOf[j] = -1;
+                doneCount++;
+                running[r] = running[--runningCount];
+                blocks.setJobInBlock(i, -1);
+                blockFreed(i);
+                occupiedWastedBytes -= size - memoryNeeded[j];
+                occupiedCapacityBytes -= size;
+            } else {
+                r++;
+            }
+        }
+
+        // Step 3: Try to load waiting jobs
+        // record queue length snapshot before allocation
+        queueLengthSum += waitingCount;
+        queueLengthSamples++;
+        if (waitingCount > queueLengthMax) queueLengthMax = waitingCount;
+
+        // Loaded jobs are dropped by compacting the queue in place, keeping FIFO order
+        int kept = 0;
+        for (int w = 0; w < waitingCount; w++) {
+            int j = waiting[w];
+
+            int i = findFirstFree(memoryNeeded[j]);
+            if (i >= 0) {
+                blocks.setJobInBlock(i, j);
+                refreshGroup(i >>> GROUP_SHIFT);
+                state[j] = RUNNING;
+                startTime[j] = currentTime;
+                blockOf[j] = i;
+                int size = blocks.blockSize(i);
+                blocks.recordAssignment(i, (int)Math.round((memoryNeeded[j] * 100.0) / size));
+                running[runningCount++] = j;
+                occupiedWastedBytes += size - memoryNeeded[j];
+                occupiedCapacityBytes += size;
+                // accumulate wait time metric now that job started
+                totalWaitTime += currentTime - arrivalTime[j];
+                jobsStartedCount++;
+            } else {
+                waiting[kept++] = j;
+            }
+        }
+        waitingCount = kept;
+
+        // Step 4: Measure internal fragmentation after allocation for this tick
+        if (occupiedCapacityBytes > 0) {
+            internalFragSumBytes += occupiedWastedBytes;
+            internalFragDenomBytes += occupiedCapacityBytes;
+            internalFragSamples++;
+        }
+
+        currentTime++;
+    }
+
+    // Build MemoryBlock/Job objects for the current block table (copies, see CompactMemorySimulator)
+    @Override
+    public ArrayList<MemoryBlock> getBlocks() {
+        ArrayList<MemoryBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            MemoryBlock block = new MemoryBlock(store.blockNumber(i), store.blockSize(i));
+            block.blockIndex = i;
+            block.timeUsedTicks = store.timeUsedTicks(i);
+            block.timesAssigned = store.timesAssigned(i);
+            block.maxUtilization = store.maxUtilization(i);
+            int j = store.jobInBlock(i);
+            if (j >= 0) {
+                Job job = new Job(jobNumber[j], totalTime[j], memoryNeeded[j]);
+                job.timeLeft = timeLeft[j];
+                job.status = "RUNNING";
+                job.blockNumber = block.blockNumber;
+                job.arrivalTime = arrivalTime[j];
+                job.startTime = startTime[j];
+                job.waitTime = startTime[j] - arrivalTime[j];
+                block.currentJob = job;
+                block.isEmpty = false;
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    @Override
+    public int blockNumberOf(int i) { return store.blockNumber(i); }
+
+    @Override
+    public int blockSizeOf(int i) { return store.blockSize(i); }
+
+    @Override
+    public int jobInBlockOf(int i) { return store.jobInBlock(i); }
+
+    @Override
+    public int usedTicksOf(int i) { return store.timeUsedTicks(i); }
+
+    @Override
+    public int assignmentsOf(int i) { return store.timesAssigned(i); }
+
+    // Run uniform jobs against a large block table and print the results
+    public static void main(String[] args) throws IOException {
+        String tablePath = null;
+        int blocks = 1000000;
+        int jobs = 1000;
+        long seed = 1;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "table": tablePath = value; break;
+                case "blocks": blocks = Integer.parseInt(value); break;
+                case "jobs": jobs = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        long start = System.nanoTime();
+        OffHeapBlockStore store = tablePath != null
+            ? OffHeapBlockStore.open(Paths.get(tablePath))
+            : OffHeapBlockStore.allocate(WorkloadGenerator.makeBlocks(blocks, 500, 10000, 500, seed));
+        long loadMs = (System.nanoTime() - start) / 1000000;
+
+        WorkloadGenerator generator = new WorkloadGenerator(seed, jobs);
+        generator.setUniformSizes(100, 10000);
+        generator.setUniformRuntimes(1, 20);
+        int[] numbers = new int[jobs];
+        int[] times = new int[jobs];
+        int[] sizes = new int[jobs];
+        for (int i = 0; i < jobs; i++) {
+            Job job = generator.next();
+            numbers[i] = job.jobNumber;
+            times[i] = job.totalTime;
+            sizes[i] = job.memoryNeeded;
+        }
+
+        try {
+            OffHeapMemorySimulator sim = new OffHeapMemorySimulator(store);
+            sim.setJobs(numbers, times, sizes);
+            sim.setup();
+            start = System.nanoTime();
+            while (!sim.isDone()) {
+                sim.runTick();
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+            System.out.println(store.blockCount + " blocks loaded in " + loadMs + " ms, "
+                + jobs + " jobs ran in " + elapsedMs + " ms");
+            System.out.print(sim.getStats());
+        } finally {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Headless batch runner: runs many independent simulator configurations in parallel on a
+// ForkJoinPool and collects each run's metrics into a results table.
+//
+// Runs share the configs' block and job tables, which the simulators only read; the one
+// exception, BestFitMemorySimulator.setup() reordering its job rows, gets a copy of the row
+// array (not of the rows). Within one run() call every worker thread keeps a simulator per
+// algorithm and reset()s it between runs, so back-to-back runs reuse their MemoryBlocks and
+// recycle their Jobs through a JobPool. The simulators are dropped when run() returns.
+//
+// With logDir set, every run also writes an EventLogWriter log, <name>-<algorithm>.evl, that
+// EventLogReader can turn back into stats (or, with logWaiting, the full text log).
+public class ParameterSweep {
+
+    public static final int JOB_POOL_SIZE = 65536;
+
+    // One configuration to simulate
+    public static class Config {
+        public String name;
+        public String algorithm;   // any name SimulationEngine.create() accepts
+        public int[][] blocks;     // [blockNumber, size]
+        public int[][] jobs;       // [jobNumber, time, size]
+
+        public Config(String name, String algorithm, int[][] blocks, int[][] jobs) {
+            this.name = name;
+            this.algorithm = algorithm;
+            this.blocks = blocks;
+            this.jobs = jobs;
+        }
+    }
+
+    // Metrics of one finished run (the numbers behind getStats())
+    public static class Result {
+        public Config config;
+        public LatencyHistogram waitTimes;      // the run's histograms, can be merged across runs
+        public LatencyHistogram turnarounds;
+        public LatencyHistogram queueLengths;
+        public int jobsCompleted;
+        public int jobsRejected;
+        public int totalTime;
+        public double throughput;
+        public double avgQueueLength;
+        public int maxQueueLength;
+        public double avgWaitTime;
+        public double avgFragPercent;
+        public double avgUtilPercent;
+        public long elapsedNanos;
+        public String stats;       // the full getStats() text
+    }
+
+    public int threads;
+    public Path logDir;            // null = no event logs
+    public boolean logWaiting;     // log waiting jobs too, so the logs can be rendered as text
+
+    public ParameterSweep(int threads) {
+        this.threads = threads;
+    }
+
+    // Run every configuration and return the results in the same order
+    public ArrayList<Result> run(List<Config> configs) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        // reusable simulators of this sweep: per worker thread, by algorithm name
+        ConcurrentHashMap<Thread, HashMap<String, SimulationEngine>> simulators = new ConcurrentHashMap<>();
+        try {
+            ArrayList<ForkJoinTask<Result>> tasks = new ArrayList<>();
+            for (Config config : configs) {
+                tasks.add(pool.submit(() -> runOne(config,
+                    simulators.computeIfAbsent(Thread.currentThread(), t -> new HashMap<>()))));
+            }
+            ArrayList<Result> results = new ArrayList<>();
+            for (ForkJoinTask<Result> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Run a single configuration to completion on the calling thread
+    public static Result runOne(Config config) {
+        return new ParameterSweep(1).runOne(config, new HashMap<>());
+    }
+
+    // Same, reusing the simulator for config.algorithm in `simulators` (used by one thread only)
+    private Result runOne(Config config, HashMap<String, SimulationEngine> simulators) {
+        long start = System.nanoTime();
+        SimulationEngine sim = simulators.get(config.algorithm);
+        if (sim == null) {
+            sim = SimulationEngine.create(config.algorithm);
+            sim.setJobPool(new JobPool(JOB_POOL_SIZE));
+            sim.setQuiet(true);
+            simulators.put(config.algorithm, sim);
+        } else {
+            sim.reset();
+        }
+        sim.allBlocks = config.blocks;
+        sim.allJobs = config.jobs.clone();  // shallow: Best-Fit reorders the rows, never changes them
+        sim.setup();
+        if (logDir != null) {
+            runLogged(sim, logDir.resolve(config.name + "-" + config.algorithm + ".evl"));
+        } else {
+            while (!sim.isDone()) {
+                sim.runTick();
+            }
+        }
+        Result result = collect(sim);
+        result.stats = sim.getStats();
+        result.config = config;
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // Run sim to completion with an event log attached, then make it quiet again
+    private void runLogged(SimulationEngine sim, Path path) {
+        try (EventLogWriter log = new EventLogWriter(sim, path, logWaiting)) {
+            sim.setListener(log);
+            while (!sim.isDone()) {
+                sim.runTick();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write event log " + path, e);
+        } finally {
+            sim.setQuiet(true);
+        }
+    }
+
+    private static Result collect(SimulationEngine sim) {
+        SimulationStats stats = sim.getSnapshot();
+        Result r = new Result();
+        r.jobsCompleted = stats.doneCount;
+        r.jobsRejected = stats.rejectedCount;
+        r.totalTime = stats.time;
+        r.throughput = stats.throughput;
+        r.avgQueueLength = stats.avgQueueLength;
+        r.maxQueueLength = stats.queueLengthMax;
+        r.avgWaitTime = stats.avgWaitTime;
+        r.avgFragPercent = stats.avgInternalFragPercent;
+        r.avgUtilPercent = stats.avgBlockUtilPercent;
+        // copies, the simulator's own histograms are cleared when it is reused
+        r.waitTimes = copyOf(sim.waitTimeHistogram);
+        r.turnarounds = copyOf(sim.turnaroundHistogram);
+        r.queueLengths = copyOf(sim.queueLengthHistogram);
+        return r;
+    }
+
+    private static LatencyHistogram copyOf(LatencyHistogram histogram) {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(histogram);
+        return copy;
+    }
+
+    // Results as a fixed-width text table
+    public static String formatTable(List<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %-10s %6s %6s %7s %8s %8s %6s %8s %7s %7s %9s\n",
+            "config", "algorithm", "done", "rej", "time", "thruput", "avgQ", "maxQ", "avgWait", "frag%", "util%", "ms"));
+        for (Result r : results) {
+            sb.append(String.format("%-24s %-10s %6d %6d %7d %8.3f %8.2f %6d %8.2f %7.2f %7.2f %9.1f\n",
+                r.config.name, r.config.algorithm, r.jobsCompleted, r.jobsRejected, r.totalTime,
+                r.throughput, r.avgQueueLength, r.maxQueueLength, r.avgWaitTime,
+                r.avgFragPercent, r.avgUtilPercent, r.elapsedNanos / 1e6));
+        }
+        return sb.toString();
+    }
+
+    // Merge the histograms of every run with the given algorithm and report their percentiles
+    public static String formatPercentiles(List<Result> results, String algorithm) {
+        LatencyHistogram waitTimes = new LatencyHistogram();
+        LatencyHistogram turnarounds = new LatencyHistogram();
+        LatencyHistogram queueLengths = new LatencyHistogram();
+        for (Result r : results) {
+            if (r.config.algorithm.equals(algorithm)) {
+                waitTimes.add(r.waitTimes);
+                turnarounds.add(r.turnarounds);
+                queueLengths.add(r.queueLengths);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(algorithm).append(", all runs:\n");
+        sb.append(waitTimes.formatPercentiles("  Waiting time (ticks)"));
+        sb.append(turnarounds.formatPercentiles("  Turnaround time (ticks)"));
+        sb.append(queueLengths.formatPercentiles("  Waiting queue length"));
+        return sb.toString();
+    }
+
+    // Example sweep: a few block table sizes x workloads x every algorithm
+    // Usage: java ParameterSweep [threads] [log=dir] [waiting=false]
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path logDir = null;
+        boolean logWaiting = false;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                threads = Integer.parseInt(arg);
+                continue;
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "log": logDir = Paths.get(value); break;
+                case "waiting": logWaiting = Boolean.parseBoolean(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (logDir != null) {
+            Files.createDirectories(logDir);
+        }
+        ArrayList<Config> configs = new ArrayList<>();
+        int[] blockCounts = {10, 100, 1000};
+        String[] distributions = {"uniform", "small", "large"};
+        String[] algorithms = {"first-fit", "best-fit", "next-fit", "worst-fit", "size-class"};
+        for (int blocks : blockCounts) {
+            for (String dist : distributions) {
+                for (long seed = 1; seed <= 4; seed++) {
+                    int[][] blockTable = SimulatorBenchmark.makeBlocks(blocks, seed);
+                    int[][] jobTable = SimulatorBenchmark.makeJobs(5000, dist, seed);
+                    String name = blocks + "b-" + dist + "-s" + seed;
+                    for (String algorithm : algorithms) {
+                        configs.add(new Config(name, algorithm, blockTable, jobTable));
+                    }
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        ParameterSweep sweep = new ParameterSweep(threads);
+        sweep.logDir = logDir;
+        sweep.logWaiting = logWaiting;
+        ArrayList<Result> results = sweep.run(configs);
+        long elapsed = System.nanoTime() - start;
+        System.out.print(formatTable(results));
+        for (String algorithm : algorithms) {
+            System.out.print(formatPercentiles(results, algorithm));
+        }
+        System.out.println(String.format("%d runs on %d threads in %.1f ms", results.size(), threads, elapsed / 1e6));
+    }
+}
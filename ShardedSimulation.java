@@ -0,0 +1,419 @@
+import java.util.ArrayDeque;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Splits the block table into pools of consecutive blocks and runs each pool as its own
+// SimulationEngine on its own worker thread, so the work of a tick over a huge block table
+// can be spread over several cores. Pools only meet at a barrier every syncTicks ticks, so
+// the cost of synchronizing is shared by that many ticks; main() and bench.ShardedBenchmark
+// time one engine against the pools on the same workload.
+//
+//   - A dispatcher thread reads the job source ahead of the workers and routes every job
+//     to the least loaded pool that has a block big enough for it, through a lock-free
+//     JobRing per pool. Jobs bigger than every block go to pool 0, which rejects them.
+//   - All pools run the same syncTicks ticks, then meet at a barrier. There, idle pools
+//     (free memory but nothing waiting) steal a waiting job from the busiest pool that it
+//     cannot place itself but that fits the idle pool's largest free block. Each pool
+//     records its queue length per tick, and the barrier merges them tick by tick.
+//   - getStats() merges the pools into one report, in block table order.
+//
+// Placement is per pool, so the results are close to but not the same as one engine
+// running the whole table.
+//
+// Usage: java ShardedSimulation [shards=4] [blocks=100000] [jobs=200000] [policy=first-fit] [seed=1] [sync=64]
+public class ShardedSimulation {
+
+    public static final int RING_CAPACITY = 4096;
+    public static final int STEAL_SCAN = 64;      // waiting jobs a thief looks at per barrier
+    public static final int SYNC_TICKS = 64;
+
+    public SimulationEngine[] shards;
+    public int[] shardLargest;                    // largest block of each pool
+    public JobRing[] rings;
+    public AtomicIntegerArray shardLoad;          // jobs waiting in each pool, published at each barrier
+    public JobSource source;
+    public int syncTicks;                         // ticks each pool runs between barriers
+
+    // Per pool and tick of the current window, written by the pool's worker
+    public int[][] tickQueued;                    // jobs waiting when loading started
+    public boolean[][] tickOccupied;              // any block occupied after loading
+    public boolean[][] tickDone;                  // pool done after the tick
+
+    // Dispatcher progress
+    public volatile int dispatchedThrough;        // every job arriving at or before this tick is routed
+    public volatile boolean dispatchDone;
+
+    // Merged per-tick counters, kept at the barrier
+    public int time;
+    public int queueLengthMax;
+    public int internalFragSamples;
+    public long stolenJobs;
+    public LatencyHistogram queueLengthHistogram;
+    public volatile boolean done;
+
+    private volatile boolean stopped;
+    private Throwable failure;
+
+    public ShardedSimulation(String algorithm, int[][] blocks, int shardCount, JobSource source) {
+        this(algorithm, blocks, shardCount, source, SYNC_TICKS);
+    }
+
+    public ShardedSimulation(String algorithm, int[][] blocks, int shardCount, JobSource source, int syncTicks) {
+        if (syncTicks < 1) {
+            throw new IllegalArgumentException("syncTicks must be at least 1, got " + syncTicks);
+        }
+        shardCount = Math.max(1, Math.min(shardCount, blocks.length));
+        this.source = source;
+        this.syncTicks = syncTicks;
+        shards = new SimulationEngine[shardCount];
+        shardLargest = new int[shardCount];
+        rings = new JobRing[shardCount];
+        shardLoad = new AtomicIntegerArray(shardCount);
+        tickQueued = new int[shardCount][syncTicks];
+        tickOccupied = new boolean[shardCount][syncTicks];
+        tickDone = new boolean[shardCount][syncTicks];
+        queueLengthHistogram = new LatencyHistogram();
+        for (int s = 0; s < shardCount; s++) {
+            int from = (int) ((long) blocks.length * s / shardCount);
+            int to = (int) ((long) blocks.length * (s + 1) / shardCount);
+            int[][] slice = new int[to - from][];
+            System.arraycopy(blocks, from, slice, 0, slice.length);
+
+            rings[s] = new JobRing(RING_CAPACITY);
+            SimulationEngine shard = SimulationEngine.create(algorithm);
+            shard.allBlocks = slice;
+            shard.setJobSource(new Inbox(rings[s]));
+            shard.setup();
+            shard.setQuiet(true);
+            shards[s] = shard;
+            shardLargest[s] = shard.largestBlock;
+        }
+        dispatchedThrough = -1;
+    }
+
+    public static void main(String[] args) {
+        int shardCount = Runtime.getRuntime().availableProcessors();
+        int blockCount = 100000;
+        long jobCount = 200000;
+        String policy = "first-fit";
+        long seed = 1;
+        int syncTicks = SYNC_TICKS;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "shards": shardCount = Integer.parseInt(value); break;
+                case "blocks": blockCount = Integer.parseInt(value); break;
+                case "jobs": jobCount = Long.parseLong(value); break;
+                case "policy": policy = value; break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "sync": syncTicks = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        int[][] blocks = WorkloadGenerator.makeBlocks(blockCount, 500, 10000, 500, seed);
+
+        // Same workload, first on one thread, then sharded
+        SimulationEngine single = SimulationEngine.create(policy);
+        single.allBlocks = blocks;
+        single.setJobSource(workload(seed, jobCount, blockCount));
+        single.setup();
+        single.setQuiet(true);
+        long start = System.nanoTime();
+        while (!single.isDone()) {
+            single.runTick();
+        }
+        long singleMs = (System.nanoTime() - start) / 1000000;
+
+        ShardedSimulation sharded = new ShardedSimulation(policy, blocks, shardCount, workload(seed, jobCount, blockCount), syncTicks);
+        start = System.nanoTime();
+        sharded.run();
+        long shardedMs = (System.nanoTime() - start) / 1000000;
+
+        System.out.println(String.format("%s, %d blocks, %d jobs: 1 thread %d ms (%d ticks), %d shards %d ms (%d ticks), speedup %.2fx",
+            single.getAlgorithmName(), blockCount, jobCount, singleMs, single.getTime(),
+            sharded.shards.length, shardedMs, sharded.time, shardedMs > 0 ? (singleMs * 1.0) / shardedMs : 0.0));
+        System.out.println("Jobs stolen between pools: " + sharded.stolenJobs);
+        System.out.print(sharded.getStats());
+        System.out.print(sharded.getPercentileStats());
+    }
+
+    // Enough arrivals and long enough runtimes to keep a good share of the blocks busy
+    public static WorkloadGenerator workload(long seed, long jobCount, int blockCount) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, jobCount);
+        generator.setPoissonArrivals(Math.max(1.0, blockCount / 1000.0));
+        generator.setLogNormalSizes(2000, 0.8, 100, 10000);
+        generator.setParetoRuntimes(1.2, 50, 5000);
+        return generator;
+    }
+
+    // Run until every job has arrived and finished
+    public void run() {
+        CyclicBarrier barrier = new CyclicBarrier(shards.length, new Runnable() {
+            @Override
+            public void run() {
+                endWindow();
+            }
+        });
+        Thread dispatcher = new Thread(this::dispatch, "shard-dispatcher");
+        Thread[] workers = new Thread[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            final int shard = s;
+            workers[s] = new Thread(() -> work(shard, barrier), "shard-" + s);
+        }
+        dispatcher.start();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            stopped = true;
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating", e);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Sharded run failed", failure);
+        }
+    }
+
+    // Dispatcher thread: route jobs in arrival order, staying at most a ring ahead of the pools
+    private void dispatch() {
+        try {
+            int next = 0;
+            while (source.hasNext() && !stopped) {
+                int arrival = source.nextArrivalTime();
+                if (arrival - 1 > dispatchedThrough) {
+                    dispatchedThrough = arrival - 1;   // nothing else can arrive before this job
+                }
+                Job job = source.next();
+                job.arrivalTime = arrival;
+                int s = route(job.memoryNeeded, next);
+                next = (s + 1) % shards.length;
+                for (int spins = 0; !rings[s].offer(job); spins++) {
+                    if (stopped) return;
+                    backOff(spins);
+                }
+            }
+            dispatchedThrough = Integer.MAX_VALUE;
+            dispatchDone = true;
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    // Least loaded pool that can hold the job, looking from `start` so ties rotate
+    private int route(int memoryNeeded, int start) {
+        int best = -1;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < shards.length; i++) {
+            int s = (start + i) % shards.length;
+            if (shardLargest[s] < memoryNeeded) {
+                continue;
+            }
+            int load = shardLoad.get(s) + rings[s].size();
+            if (load < bestLoad) {
+                best = s;
+                bestLoad = load;
+            }
+        }
+        return best >= 0 ? best : 0;
+    }
+
+    // Worker thread: syncTicks ticks of one pool, then wait for the other pools
+    private void work(int s, CyclicBarrier barrier) {
+        SimulationEngine shard = shards[s];
+        Inbox inbox = (Inbox) shard.jobSource;
+        long queueLengthSum = shard.queueLengthSum;
+        try {
+            while (!done) {
+                for (int i = 0; i < syncTicks; i++) {
+                    // Wait until the dispatcher has routed everything arriving this tick
+                    int tick = shard.getTime();
+                    for (int spins = 0; ; spins++) {
+                        boolean complete = dispatchedThrough >= tick;
+                        inbox.fill(tick);
+                        if (complete || stopped) break;
+                        backOff(spins);
+                    }
+                    shard.runTick();
+                    tickQueued[s][i] = (int) (shard.queueLengthSum - queueLengthSum);
+                    queueLengthSum = shard.queueLengthSum;
+                    tickOccupied[s][i] = shard.occupiedCapacityBytes > 0;
+                    tickDone[s][i] = shard.isDone();
+                }
+                barrier.await();
+            }
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // another thread failed and has recorded why
+        } catch (RuntimeException e) {
+            fail(e);
+            barrier.reset();
+        }
+    }
+
+    // Spin briefly, then give the core away (there may be fewer cores than threads)
+    private static void backOff(int spins) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private void fail(Throwable e) {
+        synchronized (this) {
+            if (failure == null) failure = e;
+        }
+        stopped = true;
+        done = true;
+    }
+
+    // Barrier action, runs on one thread while every worker waits: merge the window's
+    // counters tick by tick, let idle pools steal, and decide whether the run is over
+    private void endWindow() {
+        boolean allDone = dispatchDone;
+        for (int s = 0; s < shards.length; s++) {
+            allDone &= shards[s].isDone() && rings[s].isEmpty();
+        }
+        // The run ends with the tick after which every pool is done; pools that finished
+        // earlier in the window only ran empty ticks, which add nothing to their counters
+        int ticks = syncTicks;
+        if (allDone) {
+            ticks = 1;
+            for (int i = 0; i < syncTicks - 1; i++) {
+                for (int s = 0; s < shards.length; s++) {
+                    if (!tickDone[s][i]) {
+                        ticks = i + 2;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < ticks; i++) {
+            int queued = 0;
+            boolean occupied = false;
+            for (int s = 0; s < shards.length; s++) {
+                queued += tickQueued[s][i];
+                occupied |= tickOccupied[s][i];
+            }
+            queueLengthHistogram.recordValue(queued);
+            if (queued > queueLengthMax) queueLengthMax = queued;
+            if (occupied) internalFragSamples++;
+        }
+        time += ticks;
+
+        steal();
+
+        for (int s = 0; s < shards.length; s++) {
+            shardLoad.set(s, shards[s].getWaitingCount());
+        }
+        done = allDone || stopped;
+    }
+
+    // Each pool with free memory and an empty queue takes one job from the pool with the
+    // most waiting jobs: the oldest that the victim cannot place right now but the thief can
+    private void steal() {
+        for (int thief = 0; thief < shards.length; thief++) {
+            SimulationEngine t = shards[thief];
+            int room = t.policy.largestFree();
+            if (t.getWaitingCount() > 0 || room <= 0) {
+                continue;
+            }
+            int victim = -1;
+            for (int s = 0; s < shards.length; s++) {
+                if (s != thief && shards[s].getWaitingCount() > 0
+                        && (victim < 0 || shards[s].getWaitingCount() > shards[victim].getWaitingCount())) {
+                    victim = s;
+                }
+            }
+            if (victim < 0) {
+                return;   // nothing is waiting anywhere
+            }
+            SimulationEngine v = shards[victim];
+            int victimRoom = v.policy.largestFree();
+            v.waitingJobs.startScan(room);
+            Job job;
+            for (int i = 0; i < STEAL_SCAN && (job = v.waitingJobs.nextInScan()) != null; i++) {
+                if (job.memoryNeeded > victimRoom && job.memoryNeeded <= room) {
+                    v.waitingJobs.remove(job);
+                    t.waitingJobs.add(job);
+                    stolenJobs++;
+                    break;
+                }
+            }
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public SimulationStats getSnapshot() {
+        return new SimulationStats(this);
+    }
+
+    public String getStats() {
+        return getSnapshot().format();
+    }
+
+    // Wait and turnaround times merged over the pools, queue length of all pools together
+    public String getPercentileStats() {
+        LatencyHistogram waitTimes = new LatencyHistogram();
+        LatencyHistogram turnarounds = new LatencyHistogram();
+        for (SimulationEngine shard : shards) {
+            waitTimes.add(shard.waitTimeHistogram);
+            turnarounds.add(shard.turnaroundHistogram);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(waitTimes.formatPercentiles("Waiting time (ticks)"));
+        sb.append(turnarounds.formatPercentiles("Turnaround time (ticks)"));
+        sb.append(queueLengthHistogram.formatPercentiles("Waiting queue length"));
+        return sb.toString();
+    }
+
+    // A pool's job source: jobs routed to it, moved off the ring by the worker thread
+    static class Inbox implements JobSource {
+        JobRing ring;
+        ArrayDeque<Job> pending = new ArrayDeque<>();
+
+        Inbox(JobRing ring) {
+            this.ring = ring;
+        }
+
+        // Take everything routed so far that arrives by `tick`, plus at most one later job
+        void fill(int tick) {
+            while (pending.isEmpty() || pending.peekLast().arrivalTime <= tick) {
+                Job job = ring.poll();
+                if (job == null) {
+                    return;
+                }
+                pending.addLast(job);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pending.isEmpty() || !ring.isEmpty();
+        }
+
+        @Override
+        public int nextArrivalTime() {
+            Job job = pending.peekFirst();
+            return job != null ? job.arrivalTime : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public Job next() {
+            return pending.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// Saves the complete state of a SimulationEngine between two ticks to a binary file and
+// restores it, so a long replay can be stopped and resumed in another process, or several
+// what-if runs can be forked from the same warm midpoint.
+//
+// The file holds the block table with each block's metrics, every job (waiting, running,
+// done and rejected) as a fixed-size record, all metric accumulators and histograms, and
+// the policy's extra state. The job source is not saved: on restore the caller passes a
+// fresh source for the same jobs, and the jobs that had already arrived are skipped.
+//
+// Everything goes through a FileChannel and one direct ByteBuffer, big-endian.
+//
+// Layout:
+//   header   magic, version, algorithm name
+//   engine   currentTime, nextJobNumber, metrics, histograms
+//   blocks   count, then [number, size, timeUsedTicks, timesAssigned, maxUtilization]
+//   policy   int[] from AllocationPolicy.getCheckpointState()
+//   jobs     waiting (FIFO order), running (with block index), done, rejected
+public class SimulationCheckpoint {
+
+    public static final int MAGIC = 0x4d53434b;      // "MSCK"
+    public static final int VERSION = 1;
+    public static final int BUFFER_SIZE = 1 << 16;
+    public static final int JOB_RECORD_BYTES = 41;   // 8 ints, a status byte and queueSeq
+
+    // Job status codes
+    private static final byte WAITING = 0;
+    private static final byte RUNNING = 1;
+    private static final byte DONE = 2;
+
+    public FileChannel channel;
+    public ByteBuffer buffer;
+
+    private SimulationCheckpoint(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // Write sim's state to path. Call between ticks, from the thread running sim.
+    public static void save(SimulationEngine sim, Path path) throws IOException {
+        if (sim.bulkPlacement != null) {
+            // the policy's free-block index is not kept up to date in bulk mode
+            throw new IllegalArgumentException("Cannot checkpoint a simulator in bulk placement mode");
+        }
+        if (sim.jobPool != null) {
+            // finished jobs have been recycled, so they cannot be written out
+            throw new IllegalArgumentException("Cannot checkpoint a simulator with a job pool");
+        }
+        if (sim.policy instanceof VariablePartitionPolicy) {
+            // blocks come and go with the jobs, so there is no fixed table to restore into
+            throw new IllegalArgumentException("Cannot checkpoint a variable-partition simulator");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SimulationCheckpoint out = new SimulationCheckpoint(channel);
+            out.writeEngine(sim);
+            out.flush();
+        }
+    }
+
+    // Restore a checkpoint into a new simulator with the policy it was saved with.
+    // source supplies the same jobs as the original run; null means the default allJobs table.
+    public static SimulationEngine restore(Path path, JobSource source) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SimulationCheckpoint in = new SimulationCheckpoint(channel);
+            in.buffer.flip();  // empty, nothing read yet
+            String algorithm = in.readHeader();
+            SimulationEngine sim = SimulationEngine.create(algorithm.toLowerCase());
+            in.readEngine(sim, source);
+            return sim;
+        }
+    }
+
+    // Restore into sim, which must be new (not set up) and use the same policy as the
+    // saved run. Useful when the simulator needs its own allJobs/allBlocks subclass.
+    public static void restoreInto(SimulationEngine sim, Path path, JobSource source) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SimulationCheckpoint in = new SimulationCheckpoint(channel);
+            in.buffer.flip();
+            String algorithm = in.readHeader();
+            if (!algorithm.equals(sim.getAlgorithmName())) {
+                throw new IOException("Checkpoint was saved with " + algorithm + ", not " + sim.getAlgorithmName());
+            }
+            in.readEngine(sim, source);
+        }
+    }
+
+    // ---- writing ----
+
+    private void writeEngine(SimulationEngine sim) throws IOException {
+        putInt(MAGIC);
+        putInt(VERSION);
+        putString(sim.getAlgorithmName());
+
+        putInt(sim.currentTime);
+        putInt(sim.nextJobNumber);
+        putLong(sim.queueLengthSum);
+        putInt(sim.queueLengthMax);
+        putInt(sim.queueLengthSamples);
+        putLong(sim.totalWaitTime);
+        putInt(sim.jobsStartedCount);
+        putLong(sim.internalFragSumBytes);
+        putLong(sim.internalFragDenomBytes);
+        putInt(sim.internalFragSamples);
+        putLong(sim.totalUsedTicks);
+        putHistogram(sim.waitTimeHistogram);
+        putHistogram(sim.turnaroundHistogram);
+        putHistogram(sim.queueLengthHistogram);
+
+        ArrayList<MemoryBlock> blocks = sim.memoryBlocks;
+        putInt(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            MemoryBlock block = blocks.get(i);
+            ensure(20);
+            buffer.putInt(block.blockNumber);
+            buffer.putInt(block.blockSize);
+            buffer.putInt(block.timeUsedTicks);
+            buffer.putInt(block.timesAssigned);
+            buffer.putInt(block.maxUtilization);
+        }
+
+        int[] policyState = sim.policy.getCheckpointState();
+        putInt(policyState.length);
+        for (int value : policyState) {
+            putInt(value);
+        }
+
+        // Waiting jobs in FIFO order (a full scan visits every bucket)
+        putLong(sim.waitingJobs.nextSeq);
+        putInt(sim.waitingJobs.size());
+        sim.waitingJobs.startScan(Integer.MAX_VALUE);
+        Job job;
+        while ((job = sim.waitingJobs.nextInScan()) != null) {
+            putJob(job);
+        }
+
+        // Running jobs in block order, each with the index of its block
+        putInt(sim.runningJobs.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            MemoryBlock block = blocks.get(i);
+            if (!block.isEmpty && block.currentJob != null) {
+                putInt(i);
+                putJob(block.currentJob);
+            }
+        }
+
+        putInt(sim.doneJobs.size());
+        for (Job done : sim.doneJobs) {
+            putJob(done);
+        }
+        putInt(sim.rejectedJobs.size());
+        for (Job rejected : sim.rejectedJobs) {
+            putJob(rejected);
+        }
+    }
+
+    private void putJob(Job job) throws IOException {
+        ensure(JOB_RECORD_BYTES);
+        buffer.putInt(job.jobNumber);
+        buffer.putInt(job.totalTime);
+        buffer.putInt(job.timeLeft);
+        buffer.putInt(job.memoryNeeded);
+        buffer.put(job.status.equals("RUNNING") ? RUNNING : job.status.equals("DONE") ? DONE : WAITING);
+        buffer.putInt(job.blockNumber);
+        buffer.putInt(job.startTime);
+        buffer.putInt(job.arrivalTime);
+        buffer.putInt(job.waitTime);
+        buffer.putLong(job.queueSeq);
+    }
+
+    // Settings, totals, then only the non-empty counters as (index, count) pairs
+    private void putHistogram(LatencyHistogram h) throws IOException {
+        putLong(h.highestTrackableValue);
+        putInt(h.significantDigits);
+        putLong(h.totalCount);
+        putLong(h.maxValue);
+        putLong(h.minValue);
+        int nonZero = 0;
+        for (long count : h.counts) {
+            if (count != 0) nonZero++;
+        }
+        putInt(nonZero);
+        for (int i = 0; i < h.counts.length; i++) {
+            if (h.counts[i] != 0) {
+                ensure(12);
+                buffer.putInt(i);
+                buffer.putLong(h.counts[i]);
+            }
+        }
+    }
+
+    private void putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    // Make room for n more bytes, writing out what is buffered if needed
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            flush();
+            if (buffer.remaining() < n) {
+                throw new IOException("Checkpoint field of " + n + " bytes does not fit the buffer");
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---- reading ----
+
+    private String readHeader() throws IOException {
+        if (getInt() != MAGIC) {
+            throw new IOException("Not a simulator checkpoint");
+        }
+        int version = getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        int length = getInt();
+        need(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void readEngine(SimulationEngine sim, JobSource source) throws IOException {
+        int currentTime = getInt();
+        int nextJobNumber = getInt();
+        sim.queueLengthSum = getLong();
+        sim.queueLengthMax = getInt();
+        sim.queueLengthSamples = getInt();
+        sim.totalWaitTime = getLong();
+        sim.jobsStartedCount = getInt();
+        sim.internalFragSumBytes = getLong();
+        sim.internalFragDenomBytes = getLong();
+        sim.internalFragSamples = getInt();
+        sim.totalUsedTicks = getLong();
+        sim.waitTimeHistogram = getHistogram();
+        sim.turnaroundHistogram = getHistogram();
+        sim.queueLengthHistogram = getHistogram();
+
+        // Rebuild the blocks through setup(), then put their metrics back
+        int blockCount = getInt();
+        int[][] blockTable = new int[blockCount][];
+        int[][] blockMetrics = new int[blockCount][];
+        for (int i = 0; i < blockCount; i++) {
+            need(20);
+            blockTable[i] = new int[] {buffer.getInt(), buffer.getInt()};
+            blockMetrics[i] = new int[] {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+        }
+        sim.allBlocks = blockTable;
+        if (source != null) {
+            sim.setJobSource(source);
+        }
+        sim.setup();
+        sim.jobSource.skip(nextJobNumber);
+        sim.currentTime = currentTime;
+        sim.nextJobNumber = nextJobNumber;
+        for (int i = 0; i < blockCount; i++) {
+            MemoryBlock block = sim.memoryBlocks.get(i);
+            block.timeUsedTicks = blockMetrics[i][0];
+            block.timesAssigned = blockMetrics[i][1];
+            block.maxUtilization = blockMetrics[i][2];
+        }
+
+        int[] policyState = new int[getInt()];
+        for (int i = 0; i < policyState.length; i++) {
+            policyState[i] = getInt();
+        }
+
+        long nextSeq = getLong();
+        int waiting = getInt();
+        for (int i = 0; i < waiting; i++) {
+            Job job = getJob();
+            long seq = job.queueSeq;
+            sim.waitingJobs.add(job);
+            job.queueSeq = seq;  // added in FIFO order, so the buckets stay sorted
+        }
+        sim.waitingJobs.nextSeq = nextSeq;
+
+        int running = getInt();
+        for (int i = 0; i < running; i++) {
+            int blockIndex = getInt();
+            Job job = getJob();
+            MemoryBlock block = sim.memoryBlocks.get(blockIndex);
+            block.currentJob = job;
+            block.isEmpty = false;
+            sim.occupiedWastedBytes += block.getWastedSpace();
+            sim.occupiedCapacityBytes += block.blockSize;
+            sim.runningJobs.add(job);
+            sim.completionQueue.add(job);
+        }
+        sim.policy.restoreCheckpoint(sim.memoryBlocks, policyState);
+
+        int done = getInt();
+        sim.doneJobs.ensureCapacity(done);
+        for (int i = 0; i < done; i++) {
+            sim.doneJobs.add(getJob());
+        }
+        int rejected = getInt();
+        for (int i = 0; i < rejected; i++) {
+            sim.rejectedJobs.add(getJob());
+        }
+    }
+
+    private Job getJob() throws IOException {
+        need(JOB_RECORD_BYTES);
+        Job job = new Job(buffer.getInt(), buffer.getInt(), 0);
+        job.timeLeft = buffer.getInt();
+        job.memoryNeeded = buffer.getInt();
+        byte status = buffer.get();
+        job.status = status == RUNNING ? "RUNNING" : status == DONE ? "DONE" : "WAITING";
+        job.blockNumber = buffer.getInt();
+        job.startTime = buffer.getInt();
+        job.arrivalTime = buffer.getInt();
+        job.waitTime = buffer.getInt();
+        job.queueSeq = buffer.getLong();
+        return job;
+    }
+
+    private LatencyHistogram getHistogram() throws IOException {
+        LatencyHistogram h = new LatencyHistogram(getLong(), getInt());
+        h.totalCount = getLong();
+        h.maxValue = getLong();
+        h.minValue = getLong();
+        int nonZero = getInt();
+        for (int i = 0; i < nonZero; i++) {
+            need(12);
+            int index = buffer.getInt();
+            h.counts[index] = buffer.getLong();
+        }
+        return h;
+    }
+
+    private int getInt() throws IOException {
+        need(4);
+        return buffer.getInt();
+    }
+
+    private long getLong() throws IOException {
+        need(8);
+        return buffer.getLong();
+    }
+
+    // Make sure n bytes are buffered, reading more of the file if needed
+    private void need(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        if (n > buffer.capacity()) {
+            throw new IOException("Checkpoint field of " + n + " bytes does not fit the buffer");
+        }
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Checkpoint file is truncated");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,548 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+// The simulation loop shared by every allocation policy: arrivals, running jobs, the
+// waiting queue and all metrics live here, and the AllocationPolicy only decides which
+// free block a job goes into.
+public class SimulationEngine {
+
+    public WaitingQueue waitingJobs;       // FIFO, bucketed by size class
+    public JobQueue runningJobs;
+    public ArrayList<Job> doneJobs;
+    public ArrayList<Job> rejectedJobs;
+    public PriorityQueue<Job> completionQueue;  // running jobs ordered by finish time (event-driven mode)
+    public ArrayList<MemoryBlock> memoryBlocks;
+    public AllocationPolicy policy;        // picks the block for each job
+    public SimulationListener listener;    // receives tick events, null in quiet mode
+    public TextLogListener textLog;        // default listener that builds the GUI log
+    public JobSource jobSource;            // where arriving jobs come from (defaults to allJobs)
+    public int currentTime;
+    public int nextJobNumber;
+    public int largestBlock;
+    public boolean started;
+    // Metrics
+    public long queueLengthSum;            // sum of waiting queue length over time
+    public int queueLengthMax;             // max waiting queue length
+    public int queueLengthSamples;         // number of samples
+    public long totalWaitTime;             // total time jobs spent in waiting queue
+    public int jobsStartedCount;           // number of jobs that started (for avg wait time)
+    public long internalFragSumBytes;      // sum of wasted bytes per tick across all occupied blocks
+    public long internalFragDenomBytes;    // sum of occupied block sizes per tick
+    public int internalFragSamples;        // number of ticks with at least one occupied block
+    public int totalBlockCapacity;         // sum of all block sizes (constant after setup)
+    // Running totals, kept up to date on every load and unload instead of rescanning the blocks
+    public long occupiedWastedBytes;       // wasted bytes across the occupied blocks right now
+    public long occupiedCapacityBytes;     // sizes of the occupied blocks right now
+    public long totalUsedTicks;            // sum of timeUsedTicks over all blocks
+    // Distributions, for percentiles next to the averages above
+    public LatencyHistogram waitTimeHistogram;     // ticks from arrival to start, per started job
+    public LatencyHistogram turnaroundHistogram;   // ticks from arrival to completion, per finished job
+    public LatencyHistogram queueLengthHistogram;  // waiting queue length, per tick
+    // Snapshots for readers on other threads (see SimulatorMetrics)
+    public volatile SimulationStats publishedStats;
+    public int publishInterval;            // ticks between snapshots, 0 = never
+    public int nextPublishTime;
+    // Bulk placement (see setBulkPlacement), null when jobs are placed one at a time by the policy
+    public BulkPlacement bulkPlacement;
+    public Job[] batch;
+    public Comparator<Job> batchOrder;     // smallest first, FIFO among equal sizes
+    // Job recycling (see setJobPool), null when finished jobs are kept in doneJobs
+    public JobPool jobPool;
+    public int releasedDoneCount;          // finished jobs handed back to the pool instead of doneJobs
+
+    public int[][] allJobs = { //All job data [jobNumber, time, size]
+        {1, 5, 5760}, {2, 4, 4190}, {3, 8, 3290}, {4, 2, 2030}, {5, 2, 2550},
+        {6, 6, 6990}, {7, 8, 8940}, {8, 10, 740}, {9, 7, 3930}, {10, 6, 6890},
+        {11, 5, 6580}, {12, 8, 3820}, {13, 9, 9140}, {14, 10, 420}, {15, 10, 220},
+        {16, 7, 7540}, {17, 3, 3210}, {18, 1, 1380}, {19, 9, 9850}, {20, 3, 3610},
+        {21, 7, 7540}, {22, 2, 2710}, {23, 8, 8390}, {24, 5, 5950}, {25, 10, 760}
+    };
+    public int[][] allBlocks = { // All memory blocks [blockNumber, size]
+        {1, 9500}, {2, 7000}, {3, 4500}, {4, 8500}, {5, 3000},
+        {6, 9000}, {7, 1000}, {8, 5500}, {9, 1500}, {10, 500}
+    };
+    
+    // Constructor
+    public SimulationEngine(AllocationPolicy policy) {
+        this.policy = policy;
+        waitingJobs = new WaitingQueue();
+        runningJobs = new JobQueue();
+        doneJobs = new ArrayList<>();
+        rejectedJobs = new ArrayList<>();
+        completionQueue = new PriorityQueue<>(new Comparator<Job>() {
+            @Override
+            public int compare(Job job1, Job job2) {
+                return Integer.compare(job1.finishTime(), job2.finishTime());
+            }
+        });
+        memoryBlocks = new ArrayList<>();
+        textLog = new TextLogListener(policy.getLoadTag(), policy.getWaitingReason());
+        listener = textLog;
+        currentTime = 0;
+        nextJobNumber = 0;
+        largestBlock = 0;
+        started = false;
+        queueLengthSum = 0;
+        queueLengthMax = 0;
+        queueLengthSamples = 0;
+        totalWaitTime = 0;
+        jobsStartedCount = 0;
+        internalFragSumBytes = 0;
+        internalFragDenomBytes = 0;
+        internalFragSamples = 0;
+        totalBlockCapacity = 0;
+        occupiedWastedBytes = 0;
+        occupiedCapacityBytes = 0;
+        totalUsedTicks = 0;
+        waitTimeHistogram = new LatencyHistogram();
+        turnaroundHistogram = new LatencyHistogram();
+        queueLengthHistogram = new LatencyHistogram();
+        publishedStats = null;
+        publishInterval = 0;
+        nextPublishTime = 0;
+        bulkPlacement = null;
+        jobPool = null;
+        releasedDoneCount = 0;
+        batch = new Job[64];
+        batchOrder = new Comparator<Job>() {
+            @Override
+            public int compare(Job job1, Job job2) {
+                if (job1.memoryNeeded != job2.memoryNeeded) {
+                    return Integer.compare(job1.memoryNeeded, job2.memoryNeeded);
+                }
+                return Long.compare(job1.queueSeq, job2.queueSeq);
+            }
+        };
+    }
+    
+    // Set up the simulation
+    public void setup() {
+        // Create all memory blocks, reusing the ones kept by reset()
+        for (int i = 0; i < allBlocks.length; i++) {
+            int blockNum = allBlocks[i][0];
+            int blockSize = allBlocks[i][1];
+            MemoryBlock block;
+            if (i < memoryBlocks.size()) {
+                block = memoryBlocks.get(i);
+                block.reset(blockNum, blockSize);
+            } else {
+                block = new MemoryBlock(blockNum, blockSize);
+                memoryBlocks.add(block);
+            }
+            block.blockIndex = i;
+            
+            // Track largest block
+            if (blockSize > largestBlock) {
+                largestBlock = blockSize;
+            }
+            totalBlockCapacity += blockSize;
+        }
+        while (memoryBlocks.size() > allBlocks.length) {
+            memoryBlocks.remove(memoryBlocks.size() - 1);
+        }
+        
+        // Let the policy build its free-block index, every block starts out free
+        policy.init(memoryBlocks);
+        if (bulkPlacement != null) {
+            bulkPlacement.init(memoryBlocks);
+        }
+        
+        // Jobs come from allJobs, one per tick, unless another source was set
+        if (jobSource == null) {
+            jobSource = new ArrayJobSource(allJobs);
+        }
+        if (jobPool != null) {
+            jobSource.setJobPool(jobPool);
+        }
+        started = true;
+    }
+    
+    // Put the simulator back to where it was before setup(), for another run. The MemoryBlock
+    // objects, list capacities and histograms are kept and reused, and with a job pool every
+    // job of the old run goes back into it. The job source is dropped: set a new one, or
+    // setup() reads allJobs again.
+    public void reset() {
+        if (jobPool != null) {
+            for (int c = 0; c < WaitingQueue.CLASSES; c++) {
+                recycle(waitingJobs.buckets[c]);
+            }
+            recycle(runningJobs);
+            for (Job job : doneJobs) jobPool.release(job);
+            for (Job job : rejectedJobs) jobPool.release(job);
+        }
+        waitingJobs.clear();
+        runningJobs.clear();
+        doneJobs.clear();
+        rejectedJobs.clear();
+        completionQueue.clear();
+        for (MemoryBlock block : memoryBlocks) {
+            block.reset(block.blockNumber, block.blockSize);
+        }
+        textLog.takeLog();
+        jobSource = null;
+
+        currentTime = 0;
+        nextJobNumber = 0;
+        largestBlock = 0;
+        started = false;
+        queueLengthSum = 0;
+        queueLengthMax = 0;
+        queueLengthSamples = 0;
+        totalWaitTime = 0;
+        jobsStartedCount = 0;
+        internalFragSumBytes = 0;
+        internalFragDenomBytes = 0;
+        internalFragSamples = 0;
+        totalBlockCapacity = 0;
+        occupiedWastedBytes = 0;
+        occupiedCapacityBytes = 0;
+        totalUsedTicks = 0;
+        releasedDoneCount = 0;
+        waitTimeHistogram.reset();
+        turnaroundHistogram.reset();
+        queueLengthHistogram.reset();
+        publishedStats = null;
+        nextPublishTime = publishInterval;
+    }
+
+    private void recycle(JobQueue queue) {
+        Job next;
+        for (Job job = queue.head; job != null; job = next) {
+            next = job.nextInQueue;
+            jobPool.release(job);
+        }
+    }
+
+    // Recycle finished jobs through a pool: they are counted but no longer kept in doneJobs,
+    // and the job source builds new arrivals from them. Call before setup().
+    public void setJobPool(JobPool pool) {
+        this.jobPool = pool;
+    }
+
+    // Stream jobs from somewhere other than allJobs (e.g. a TraceJobSource). Call before setup().
+    public void setJobSource(JobSource source) {
+        this.jobSource = source;
+    }
+    
+    // Run one time tick and return what happened
+    public String runOneTick() {
+        runTick();
+        return listener == textLog ? textLog.takeLog() : "";
+    }
+    
+    // Run one time tick, reporting events to the listener only.
+    // With no listener (quiet mode) a steady-state tick allocates nothing.
+    public void runTick() {
+        if (listener != null) listener.tickStarted(currentTime);
+        
+        // Step 1: New jobs arrive (every job whose arrival time has been reached)
+        while (jobSource.hasNext() && jobSource.nextArrivalTime() <= currentTime) {
+            Job newJob = jobSource.next();
+            newJob.arrivalTime = currentTime;
+            
+            if (listener != null) listener.jobArrived(newJob);
+            
+            // Check if job is too big
+            if (newJob.memoryNeeded > largestBlock) {
+                rejectedJobs.add(newJob);
+                if (listener != null) listener.jobRejected(newJob);
+            } else {
+                waitingJobs.add(newJob);
+            }
+            nextJobNumber++;
+        }
+        
+        // Step 2: Process running jobs
+        // every occupied block is used for this tick, finished or not
+        totalUsedTicks += runningJobs.size();
+        for (int i = 0; i < memoryBlocks.size(); i++) {
+            MemoryBlock block = memoryBlocks.get(i);
+            if (!block.isEmpty && block.currentJob != null) {
+                // Save job reference before processing
+                Job job = block.currentJob;
+                job.tick();
+                // track utilization time
+                block.timeUsedTicks++;
+                
+                // Check if job finished
+                if (job.isDone()) {
+                    if (listener != null) listener.jobFinished(job, block);
+                    turnaroundHistogram.recordValue(currentTime - job.arrivalTime);
+                    runningJobs.remove(job);
+                    occupiedWastedBytes -= block.getWastedSpace();
+                    occupiedCapacityBytes -= block.blockSize;
+                    block.unloadJob();
+                    if (bulkPlacement != null) {
+                        bulkPlacement.blockFreed(i);
+                    } else {
+                        policy.blockFreed(i);
+                    }
+                    if (jobPool != null) {
+                        releasedDoneCount++;
+                        jobPool.release(job);
+                    } else {
+                        doneJobs.add(job);
+                    }
+                }
+            }
+        }
+        
+        // Drop finished jobs from the completion queue
+        while (!completionQueue.isEmpty() && completionQueue.peek().finishTime() <= currentTime) {
+            completionQueue.poll();
+        }
+        
+        // Step 3: Try to load waiting jobs
+        // record queue length snapshot before allocation
+        queueLengthSum += waitingJobs.size();
+        queueLengthSamples++;
+        if (waitingJobs.size() > queueLengthMax) queueLengthMax = waitingJobs.size();
+        queueLengthHistogram.recordValue(waitingJobs.size());
+
+        // Walk the queue in FIFO order, skipping size classes that cannot fit in the largest
+        // free block. With a listener attached every job is visited so it can be reported.
+        boolean reportAll = listener != null && listener.wantsWaitingEvents();
+        if (bulkPlacement != null) {
+            placeBatch(reportAll);
+        } else {
+            waitingJobs.startScan(reportAll ? Integer.MAX_VALUE : policy.largestFree());
+            Job job;
+            while ((job = waitingJobs.nextInScan()) != null) {
+                // Ask the policy for a free block that is big enough
+                int j = policy.selectBlock(job.memoryNeeded);
+                if (j >= 0) {
+                    loadWaitingJob(job, j);
+                    if (!reportAll) waitingJobs.scanLimit = policy.largestFree();
+                } else {
+                    if (listener != null) listener.jobWaiting(job);
+                }
+            }
+        }
+
+        // Step 4: Measure internal fragmentation after allocation for this tick
+        if (occupiedCapacityBytes > 0) {
+            internalFragSumBytes += occupiedWastedBytes;
+            internalFragDenomBytes += occupiedCapacityBytes;
+            internalFragSamples++;
+        }
+        ticksMeasured(1);
+        
+        if (listener != null) listener.tickEnded(currentTime);
+        currentTime++;
+        
+        if (publishInterval > 0 && (currentTime >= nextPublishTime || isDone())) {
+            publishStats();
+        }
+    }
+    
+    // Bulk placement: take the oldest waiting jobs that fit in the largest free block, at most
+    // one per free block, sort them by size once and match them against the size-sorted
+    // free blocks in a single pass. If blocks are left over, the scan goes on with the next
+    // round of jobs, so no waiting job that fits a free block is left behind (the
+    // event-driven mode relies on that to skip ticks).
+    private void placeBatch(boolean reportAll) {
+        int largestFree = bulkPlacement.largestFree();
+        int count = 0;
+        waitingJobs.startScan(reportAll ? Integer.MAX_VALUE : largestFree);
+        Job job;
+        while ((job = waitingJobs.nextInScan()) != null) {
+            if (job.memoryNeeded <= largestFree) {
+                if (count == batch.length) {
+                    batch = Arrays.copyOf(batch, count * 2);
+                }
+                batch[count++] = job;
+                if (count == bulkPlacement.freeCount) {
+                    // a job for every free block: place them, then carry on with what is left
+                    matchBatch(count);
+                    count = 0;
+                    largestFree = bulkPlacement.largestFree();
+                    if (!reportAll) waitingJobs.scanLimit = largestFree;
+                }
+            } else if (reportAll) {
+                listener.jobWaiting(job);
+            }
+        }
+        matchBatch(count);
+    }
+
+    // Match the first count jobs of batch against the free blocks and load the ones that fit.
+    // A job left unmatched fits no free block, and blocks are only taken during the scan, so
+    // it stays unplaceable for the rest of the tick.
+    private void matchBatch(int count) {
+        Arrays.sort(batch, 0, count, batchOrder);
+        bulkPlacement.match(batch, count);
+        for (int i = 0; i < count; i++) {
+            int j = bulkPlacement.placed[i];
+            if (j >= 0) {
+                loadWaitingJob(batch[i], j);
+            } else {
+                if (listener != null) listener.jobWaiting(batch[i]);
+            }
+            batch[i] = null;
+        }
+    }
+
+    // Start a waiting job in block j
+    private void loadWaitingJob(Job job, int j) {
+        MemoryBlock block = memoryBlocks.get(j);
+        block.loadJob(job, currentTime);
+        occupiedWastedBytes += block.getWastedSpace();
+        occupiedCapacityBytes += block.blockSize;
+        if (bulkPlacement != null) {
+            bulkPlacement.blockUsed(j);
+        } else {
+            policy.blockUsed(j);
+        }
+        waitingJobs.remove(job);
+        runningJobs.add(job);
+        completionQueue.add(job);
+        // accumulate wait time metric now that job started
+        totalWaitTime += job.waitTime;
+        jobsStartedCount++;
+        waitTimeHistogram.recordValue(job.waitTime);
+
+        if (listener != null) listener.jobLoaded(job, block);
+    }
+
+    // Event-driven mode: jump over ticks in which nothing can arrive or finish,
+    // then run the next tick that has an event in it. Produces the same getStats()
+    // numbers as calling runOneTick() in a loop.
+    public String runUntilNextEvent() {
+        if (isDone()) {
+            return "";
+        }
+        
+        // Next event is the earlier of the next arrival and the next completion
+        int nextEvent = Integer.MAX_VALUE;
+        if (jobSource.hasNext()) {
+            nextEvent = Math.max(currentTime, jobSource.nextArrivalTime());
+        }
+        if (!completionQueue.isEmpty()) {
+            nextEvent = Math.min(nextEvent, completionQueue.peek().finishTime());
+        }
+        if (nextEvent == Integer.MAX_VALUE) {
+            nextEvent = currentTime;
+        }
+        
+        int idleTicks = nextEvent - currentTime;
+        if (idleTicks > 0) {
+            if (listener != null) listener.idleTicksSkipped(currentTime, idleTicks);
+            skipIdleTicks(idleTicks);
+        }
+        return runOneTick();
+    }
+    
+    // Switch the text log on or off. Quiet mode drops the default text log;
+    // a custom listener can still be attached with setListener().
+    public void setQuiet(boolean quiet) {
+        listener = quiet ? null : textLog;
+    }
+    
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+    
+    // Place waiting jobs in bulk (smallest jobs into the smallest free blocks that fit, one
+    // sorted pass per tick) instead of one at a time with the policy's own first-fit,
+    // best-fit, ... choice. The policy is not told about loads and frees in bulk mode, so
+    // the mode has to be chosen before setup().
+    public void setBulkPlacement(boolean bulk) {
+        if (started) {
+            throw new IllegalStateException("Bulk placement must be chosen before setup()");
+        }
+        bulkPlacement = bulk ? new BulkPlacement() : null;
+    }
+    
+    // Publish a snapshot to publishedStats every `ticks` ticks (and once the run is done)
+    public void setPublishInterval(int ticks) {
+        publishInterval = ticks;
+        nextPublishTime = currentTime + ticks;
+    }
+    
+    // Take a snapshot now and make it visible to other threads
+    public void publishStats() {
+        publishedStats = getSnapshot();
+        nextPublishTime = currentTime + publishInterval;
+    }
+    
+    // Account for ticks in which no job arrives, finishes or gets loaded.
+    // Nothing changes state, so every per-tick metric just gets multiplied by the tick count.
+    private void skipIdleTicks(int ticks) {
+        for (int i = 0; i < memoryBlocks.size(); i++) {
+            MemoryBlock block = memoryBlocks.get(i);
+            if (!block.isEmpty && block.currentJob != null) {
+                block.currentJob.timeLeft -= ticks;
+                block.timeUsedTicks += ticks;
+            }
+        }
+        totalUsedTicks += (long) runningJobs.size() * ticks;
+        
+        queueLengthSum += (long) waitingJobs.size() * ticks;
+        queueLengthSamples += ticks;
+        if (waitingJobs.size() > queueLengthMax) queueLengthMax = waitingJobs.size();
+        queueLengthHistogram.recordValueWithCount(waitingJobs.size(), ticks);
+        
+        if (occupiedCapacityBytes > 0) {
+            internalFragSumBytes += occupiedWastedBytes * ticks;
+            internalFragDenomBytes += occupiedCapacityBytes * ticks;
+            internalFragSamples += ticks;
+        }
+        ticksMeasured(ticks);
+        currentTime += ticks;
+    }
+
+    // Called once the per-tick metrics above have been recorded for `ticks` ticks (one normal
+    // tick, or a run of skipped idle ticks), for subclasses that measure something of their own
+    public void ticksMeasured(int ticks) {
+    }
+    
+    // Check if simulation is done
+    public boolean isDone() {
+        return jobSource != null && !jobSource.hasNext() && 
+               waitingJobs.size() == 0 && 
+               runningJobs.size() == 0;
+    }
+    
+    // Getter methods for GUI
+    public String getAlgorithmName() { return policy.getName(); }
+    public boolean isStarted() { return started; }
+    public int getTime() { return currentTime; }
+    public int getRunningCount() { return runningJobs.size(); }
+    public int getWaitingCount() { return waitingJobs.size(); }
+    public int getDoneCount() { return doneJobs.size() + releasedDoneCount; }
+    public int getRejectedCount() { return rejectedJobs.size(); }
+    public ArrayList<MemoryBlock> getBlocks() { return memoryBlocks; }
+
+    // Create a simulator for an algorithm name:
+    // "first-fit", "best-fit", "next-fit", "worst-fit" or "size-class"
+    public static SimulationEngine create(String algorithm) {
+        switch (algorithm) {
+            case "first-fit": return new MemorySimulator();
+            case "best-fit": return new BestFitMemorySimulator();
+            case "next-fit": return new SimulationEngine(new NextFitPolicy());
+            case "worst-fit": return new SimulationEngine(new WorstFitPolicy());
+            case "size-class": return new SimulationEngine(new SizeClassPolicy());
+            default: throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+    }
+
+    // Structured copy of the counters behind getStats()
+    public SimulationStats getSnapshot() {
+        return new SimulationStats(this);
+    }
+    
+    // Build extended statistics string
+    public String getStats() {
+        return getSnapshot().format();
+    }
+
+    // Tail of the wait time, turnaround and queue length distributions
+    public String getPercentileStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(waitTimeHistogram.formatPercentiles("Waiting time (ticks)"));
+        sb.append(turnaroundHistogram.formatPercentiles("Turnaround time (ticks)"));
+        sb.append(queueLengthHistogram.formatPercentiles("Waiting queue length"));
+        return sb.toString();
+    }
+}
\ No newline at end of file
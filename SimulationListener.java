@@ -0,0 +1,17 @@
+// Receives what happens during a tick, in the order it happens.
+// Simulators call these instead of building log text, so a headless run with
+// no listener attached does no String work at all.
+public interface SimulationListener {
+    default void tickStarted(int time) {}
+    default void jobArrived(Job job) {}
+    default void jobRejected(Job job) {}
+    default void jobFinished(Job job, MemoryBlock block) {}
+    default void jobLoaded(Job job, MemoryBlock block) {}
+    default void jobWaiting(Job job) {}
+    default void idleTicksSkipped(int fromTime, int ticks) {}  // event-driven mode only
+    default void tickEnded(int time) {}
+
+    // Return false if jobWaiting() is not needed; the engine can then skip waiting jobs
+    // that cannot fit anywhere instead of visiting every one of them each tick
+    default boolean wantsWaitingEvents() { return true; }
+}
@@ -0,0 +1,265 @@
+// Runs a simulator on its own thread, so the GUI never executes ticks on the Event
+// Dispatch Thread. The engine ticks as fast as it can (or with tickDelayMillis between
+// ticks), writes its log into a LogRingBuffer and, when asked, publishes an immutable
+// SimulationStats snapshot. The GUI asks once per frame, so however many ticks run
+// between two frames, only one snapshot is built.
+//
+// The log is built the same way: while running, the simulator reports to an EventRing
+// that keeps the last events as plain ints, and only those are turned into text when a
+// snapshot is published. Every event makes at least one line, so nothing formatted is
+// pushed out of the LogRingBuffer before the GUI could show it.
+//
+// Only the runner thread touches the simulator while the runner is alive. Once the run
+// is done (the published snapshot says so) the thread has stopped and the GUI may read
+// the simulator directly, e.g. for getStats().
+public class SimulationRunner implements Runnable {
+
+    public SimulationEngine sim;
+    public LogRingBuffer log;
+    public volatile SimulationStats latest;       // last published snapshot
+    public volatile boolean snapshotRequested;
+    public volatile int tickDelayMillis;          // pause between ticks, 0 = full speed (set from the EDT)
+    public boolean running;                       // guarded by this
+    public int pendingSteps;                      // single ticks requested while paused
+    public boolean stopped;
+    public Thread thread;
+    public EventRing events;                      // null if the simulator has no text log
+
+    public SimulationRunner(SimulationEngine sim, LogRingBuffer log) {
+        this.sim = sim;
+        this.log = log;
+        this.tickDelayMillis = 0;
+        this.running = false;
+        this.pendingSteps = 0;
+        this.stopped = false;
+        this.latest = new SimulationStats(sim);
+        if (sim.listener == sim.textLog) {
+            events = new EventRing(log.lines.length);
+            sim.setListener(events);
+        }
+    }
+
+    public void start() {
+        thread = new Thread(this, "simulation-" + sim.getAlgorithmName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void resume() {
+        running = true;
+        notifyAll();
+    }
+
+    public synchronized void pause() {
+        running = false;
+        notifyAll();
+    }
+
+    public synchronized void step() {
+        pendingSteps++;
+        notifyAll();
+    }
+
+    public synchronized void setTickDelay(int millis) {
+        tickDelayMillis = millis;
+        notifyAll();
+    }
+
+    // Stop the thread and wait for it, after which the simulator may be used elsewhere
+    public void shutdown() {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Called by the GUI once per frame: returns the newest snapshot and asks for another
+    public SimulationStats requestSnapshot() {
+        snapshotRequested = true;
+        return latest;
+    }
+
+    private void publish() {
+        snapshotRequested = false;
+        if (events != null) {
+            events.flush(sim.textLog, log);
+        }
+        latest = new SimulationStats(sim);
+    }
+
+    @Override
+    public void run() {
+        try {
+            runTicks();
+        } finally {
+            // the simulator is the caller's again, with its usual text log
+            if (events != null) {
+                events.flush(sim.textLog, log);
+                sim.setListener(sim.textLog);
+            }
+        }
+    }
+
+    private void runTicks() {
+        while (true) {
+            synchronized (this) {
+                // Sleep until there is something to do, publishing the idle state first
+                while (!stopped && !running && pendingSteps == 0) {
+                    publish();
+                    waitQuietly(0);
+                }
+                if (stopped) {
+                    return;
+                }
+                if (pendingSteps > 0) {
+                    pendingSteps--;
+                }
+            }
+
+            sim.runTick();
+            if (sim.isDone()) {
+                publish();
+                return;
+            }
+            if (snapshotRequested) {
+                publish();
+            }
+
+            int delay = tickDelayMillis;
+            if (delay > 0) {
+                synchronized (this) {
+                    if (running && !stopped) {
+                        waitQuietly(delay);
+                    }
+                }
+            }
+        }
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException e) {
+            stopped = true;
+        }
+    }
+
+    // Keeps the last `capacity` events of the run as ints, overwriting the oldest.
+    // Block number and size are copied at the time of the event, since a block can be
+    // reused (or, for variable partitions, moved) before the events are formatted.
+    static class EventRing implements SimulationListener {
+        static final int TICK = 0;
+        static final int ARRIVAL = 1;
+        static final int REJECT = 2;
+        static final int FINISH = 3;
+        static final int LOAD = 4;
+        static final int WAITING = 5;
+        static final int IDLE = 6;
+        static final int TICK_END = 7;
+        static final int FIELDS = 7;   // type, time, jobNumber, totalTime, memoryNeeded, blockNumber, blockSize
+
+        int[] events;
+        int capacity;
+        int next;                      // slot of the next event
+        int count;
+        Job job = new Job(0, 0, 0);
+        MemoryBlock block = new MemoryBlock(0, 0);
+
+        EventRing(int capacity) {
+            this.capacity = capacity;
+            this.events = new int[capacity * FIELDS];
+        }
+
+        private void put(int type, int time, int jobNumber, int totalTime, int memoryNeeded, int blockNumber, int blockSize) {
+            int at = next * FIELDS;
+            events[at] = type;
+            events[at + 1] = time;
+            events[at + 2] = jobNumber;
+            events[at + 3] = totalTime;
+            events[at + 4] = memoryNeeded;
+            events[at + 5] = blockNumber;
+            events[at + 6] = blockSize;
+            next = (next + 1) % capacity;
+            if (count < capacity) count++;
+        }
+
+        private void put(int type, Job j, MemoryBlock b) {
+            put(type, 0, j.jobNumber, j.totalTime, j.memoryNeeded, b != null ? b.blockNumber : 0, b != null ? b.blockSize : 0);
+        }
+
+        @Override
+        public void tickStarted(int time) {
+            put(TICK, time, 0, 0, 0, 0, 0);
+        }
+
+        @Override
+        public void jobArrived(Job j) {
+            put(ARRIVAL, j, null);
+        }
+
+        @Override
+        public void jobRejected(Job j) {
+            put(REJECT, j, null);
+        }
+
+        @Override
+        public void jobFinished(Job j, MemoryBlock b) {
+            put(FINISH, j, b);
+        }
+
+        @Override
+        public void jobLoaded(Job j, MemoryBlock b) {
+            put(LOAD, j, b);
+        }
+
+        @Override
+        public void jobWaiting(Job j) {
+            put(WAITING, j, null);
+        }
+
+        @Override
+        public void idleTicksSkipped(int fromTime, int ticks) {
+            put(IDLE, fromTime, 0, ticks, 0, 0, 0);
+        }
+
+        @Override
+        public void tickEnded(int time) {
+            put(TICK_END, time, 0, 0, 0, 0, 0);
+        }
+
+        // Format the kept events with text, oldest first, append them to log and start over
+        void flush(TextLogListener text, LogRingBuffer log) {
+            if (count == 0) {
+                return;
+            }
+            for (int e = next - count + capacity; count > 0; e++, count--) {
+                int at = (e % capacity) * FIELDS;
+                int time = events[at + 1];
+                job.reset(events[at + 2], events[at + 3], events[at + 4]);
+                block.blockNumber = events[at + 5];
+                block.blockSize = events[at + 6];
+                block.currentJob = job;
+                block.isEmpty = false;
+                switch (events[at]) {
+                    case TICK: text.tickStarted(time); break;
+                    case ARRIVAL: text.jobArrived(job); break;
+                    case REJECT: text.jobRejected(job); break;
+                    case FINISH: text.jobFinished(job, block); break;
+                    case LOAD: text.jobLoaded(job, block); break;
+                    case WAITING: text.jobWaiting(job); break;
+                    case IDLE: text.idleTicksSkipped(time, events[at + 3]); break;
+                    case TICK_END: text.tickEnded(time); break;
+                    default: throw new IllegalStateException("Unknown event type " + events[at]);
+                }
+            }
+            log.append(text.takeLog());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+// Immutable snapshot of a simulator's counters at the end of a tick, for programs that
+// want the numbers behind getStats() without parsing its text. Safe to hand to another
+// thread once built: every field is final and the arrays are private copies.
+public class SimulationStats {
+
+    public final String algorithm;
+    public final int time;
+    public final int runningCount;
+    public final int waitingCount;
+    public final int doneCount;
+    public final int rejectedCount;
+    public final double throughput;               // finished jobs per tick
+    public final double avgQueueLength;
+    public final int queueLengthMax;
+    public final double avgWaitTime;              // ticks, over started jobs
+    public final double avgInternalFragBytes;     // per tick with at least one occupied block
+    public final double avgInternalFragPercent;   // wasted bytes / occupied block bytes
+    public final double avgBlockUtilPercent;      // share of block-ticks that were occupied
+    public final boolean done;                    // the run has finished
+    // Blocks by share of the run they were occupied (see format())
+    public final int blockCount;
+    public final int neverUsedBlocks;
+    public final int lightlyUsedBlocks;           // < 20% of the time
+    public final int moderatelyUsedBlocks;        // 20-80%
+    public final int heavilyUsedBlocks;           // >= 80%
+    // Per block, in block table order
+    public final int[] blockNumbers;
+    public final int[] blockTimeUsedTicks;
+    public final int[] blockTimesAssigned;
+    public final int[] blockSizes;
+    public final int[] blockJobNumbers;           // job in the block, -1 if free
+    public final int[] blockJobTimeLeft;
+    public final int[] blockJobTotalTime;
+
+    public SimulationStats(SimulationEngine sim) {
+        algorithm = sim.getAlgorithmName();
+        time = sim.getTime();
+        runningCount = sim.getRunningCount();
+        waitingCount = sim.getWaitingCount();
+        doneCount = sim.getDoneCount();
+        rejectedCount = sim.getRejectedCount();
+        throughput = time > 0 ? (doneCount * 1.0) / time : 0.0;
+        avgQueueLength = sim.queueLengthSamples > 0 ? (sim.queueLengthSum * 1.0) / sim.queueLengthSamples : 0.0;
+        queueLengthMax = sim.queueLengthMax;
+        avgWaitTime = sim.jobsStartedCount > 0 ? (sim.totalWaitTime * 1.0) / sim.jobsStartedCount : 0.0;
+        avgInternalFragBytes = sim.internalFragSamples > 0 ? (sim.internalFragSumBytes * 1.0) / sim.internalFragSamples : 0.0;
+        avgInternalFragPercent = sim.internalFragDenomBytes > 0 ? (sim.internalFragSumBytes * 100.0) / sim.internalFragDenomBytes : 0.0;
+        done = sim.isDone();
+
+        int blocks = sim.memoryBlocks.size();
+        avgBlockUtilPercent = (time > 0 && blocks > 0) ? (sim.totalUsedTicks * 100.0) / ((long) time * blocks) : 0.0;
+        blockNumbers = new int[blocks];
+        blockTimeUsedTicks = new int[blocks];
+        blockTimesAssigned = new int[blocks];
+        blockSizes = new int[blocks];
+        blockJobNumbers = new int[blocks];
+        blockJobTimeLeft = new int[blocks];
+        blockJobTotalTime = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            MemoryBlock b = sim.memoryBlocks.get(i);
+            blockNumbers[i] = b.blockNumber;
+            blockTimeUsedTicks[i] = b.timeUsedTicks;
+            blockTimesAssigned[i] = b.timesAssigned;
+            blockSizes[i] = b.blockSize;
+            Job job = b.isEmpty ? null : b.currentJob;
+            blockJobNumbers[i] = job != null ? job.jobNumber : -1;
+            blockJobTimeLeft[i] = job != null ? job.timeLeft : 0;
+            blockJobTotalTime[i] = job != null ? job.totalTime : 0;
+        }
+        int[] usage = countUsage(time, blockTimeUsedTicks, blockTimesAssigned);
+        blockCount = blocks;
+        neverUsedBlocks = usage[NEVER_USED];
+        lightlyUsedBlocks = usage[LIGHT];
+        moderatelyUsedBlocks = usage[MODERATE];
+        heavilyUsedBlocks = usage[HEAVY];
+    }
+
+    // Merged snapshot of the pools of a ShardedSimulation, blocks in block table order.
+    // Only call this while the pools are not ticking (at the end of a run).
+    public SimulationStats(ShardedSimulation sharded) {
+        SimulationEngine[] shards = sharded.shards;
+        algorithm = shards[0].getAlgorithmName();
+        time = sharded.time;
+        int running = 0, waiting = 0, finished = 0, rejected = 0, blocks = 0, started = 0;
+        long queueSum = 0, waitSum = 0, fragSum = 0, fragDenom = 0, usedTicks = 0;
+        for (SimulationEngine shard : shards) {
+            running += shard.getRunningCount();
+            waiting += shard.getWaitingCount();
+            finished += shard.getDoneCount();
+            rejected += shard.getRejectedCount();
+            blocks += shard.memoryBlocks.size();
+            started += shard.jobsStartedCount;
+            queueSum += shard.queueLengthSum;
+            waitSum += shard.totalWaitTime;
+            fragSum += shard.internalFragSumBytes;
+            fragDenom += shard.internalFragDenomBytes;
+            usedTicks += shard.totalUsedTicks;
+        }
+        runningCount = running;
+        waitingCount = waiting;
+        doneCount = finished;
+        rejectedCount = rejected;
+        throughput = time > 0 ? (doneCount * 1.0) / time : 0.0;
+        // every pool samples its queue once per tick, so the per-tick total is the sum
+        avgQueueLength = time > 0 ? (queueSum * 1.0) / time : 0.0;
+        queueLengthMax = sharded.queueLengthMax;
+        avgWaitTime = started > 0 ? (waitSum * 1.0) / started : 0.0;
+        avgInternalFragBytes = sharded.internalFragSamples > 0 ? (fragSum * 1.0) / sharded.internalFragSamples : 0.0;
+        avgInternalFragPercent = fragDenom > 0 ? (fragSum * 100.0) / fragDenom : 0.0;
+        done = sharded.isDone();
+        avgBlockUtilPercent = (time > 0 && blocks > 0) ? (usedTicks * 100.0) / ((long) time * blocks) : 0.0;
+
+        blockNumbers = new int[blocks];
+        blockTimeUsedTicks = new int[blocks];
+        blockTimesAssigned = new int[blocks];
+        blockSizes = new int[blocks];
+        blockJobNumbers = new int[blocks];
+        blockJobTimeLeft = new int[blocks];
+        blockJobTotalTime = new int[blocks];
+        int i = 0;
+        for (SimulationEngine shard : shards) {
+            for (MemoryBlock b : shard.memoryBlocks) {
+                blockNumbers[i] = b.blockNumber;
+                blockTimeUsedTicks[i] = b.timeUsedTicks;
+                blockTimesAssigned[i] = b.timesAssigned;
+                blockSizes[i] = b.blockSize;
+                Job job = b.isEmpty ? null : b.currentJob;
+                blockJobNumbers[i] = job != null ? job.jobNumber : -1;
+                blockJobTimeLeft[i] = job != null ? job.timeLeft : 0;
+                blockJobTotalTime[i] = job != null ? job.totalTime : 0;
+                i++;
+            }
+        }
+        int[] usage = countUsage(time, blockTimeUsedTicks, blockTimesAssigned);
+        blockCount = blocks;
+        neverUsedBlocks = usage[NEVER_USED];
+        lightlyUsedBlocks = usage[LIGHT];
+        moderatelyUsedBlocks = usage[MODERATE];
+        heavilyUsedBlocks = usage[HEAVY];
+    }
+
+    // Snapshot rebuilt offline from a binary event log. The log does not say whether more
+    // jobs were still to come, so `done` means nothing is left waiting or running, and the
+    // time left of a job still running at the end is not known (reported as 0).
+    public SimulationStats(EventLogReader.Metrics log) {
+        algorithm = log.algorithm;
+        time = log.time;
+        runningCount = log.runningCount;
+        waitingCount = log.waitingCount;
+        doneCount = log.doneCount;
+        rejectedCount = log.rejectedCount;
+        throughput = time > 0 ? (doneCount * 1.0) / time : 0.0;
+        avgQueueLength = log.queueLengthSamples > 0 ? (log.queueLengthSum * 1.0) / log.queueLengthSamples : 0.0;
+        queueLengthMax = log.queueLengthMax;
+        avgWaitTime = log.jobsStartedCount > 0 ? (log.totalWaitTime * 1.0) / log.jobsStartedCount : 0.0;
+        avgInternalFragBytes = log.internalFragSamples > 0 ? (log.internalFragSumBytes * 1.0) / log.internalFragSamples : 0.0;
+        avgInternalFragPercent = log.internalFragDenomBytes > 0 ? (log.internalFragSumBytes * 100.0) / log.internalFragDenomBytes : 0.0;
+        done = waitingCount == 0 && runningCount == 0;
+
+        int blocks = log.blockNumbers.length;
+        avgBlockUtilPercent = (time > 0 && blocks > 0) ? (log.totalUsedTicks() * 100.0) / ((long) time * blocks) : 0.0;
+        blockNumbers = log.blockNumbers.clone();
+        blockTimeUsedTicks = new int[blocks];
+        blockTimesAssigned = log.blockTimesAssigned.clone();
+        blockSizes = log.blockSizes.clone();
+        blockJobNumbers = log.blockJobNumbers.clone();
+        blockJobTimeLeft = new int[blocks];
+        blockJobTotalTime = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            blockTimeUsedTicks[i] = log.timeUsedTicks(i);
+        }
+        int[] usage = countUsage(time, blockTimeUsedTicks, blockTimesAssigned);
+        blockCount = blocks;
+        neverUsedBlocks = usage[NEVER_USED];
+        lightlyUsedBlocks = usage[LIGHT];
+        moderatelyUsedBlocks = usage[MODERATE];
+        heavilyUsedBlocks = usage[HEAVY];
+    }
+
+    // Snapshot of a CompactMemorySimulator or OffHeapMemorySimulator. With perBlock false the
+    // per-block arrays are left empty and only the usage counts are kept, so a summary of a
+    // table of millions of blocks does not copy it onto the heap.
+    public SimulationStats(CompactMemorySimulator sim, boolean perBlock) {
+        algorithm = "First-Fit";
+        time = sim.getTime();
+        runningCount = sim.getRunningCount();
+        waitingCount = sim.getWaitingCount();
+        doneCount = sim.getDoneCount();
+        rejectedCount = sim.getRejectedCount();
+        throughput = time > 0 ? (doneCount * 1.0) / time : 0.0;
+        avgQueueLength = sim.queueLengthSamples > 0 ? (sim.queueLengthSum * 1.0) / sim.queueLengthSamples : 0.0;
+        queueLengthMax = sim.queueLengthMax;
+        avgWaitTime = sim.jobsStartedCount > 0 ? (sim.totalWaitTime * 1.0) / sim.jobsStartedCount : 0.0;
+        avgInternalFragBytes = sim.internalFragSamples > 0 ? (sim.internalFragSumBytes * 1.0) / sim.internalFragSamples : 0.0;
+        avgInternalFragPercent = sim.internalFragDenomBytes > 0 ? (sim.internalFragSumBytes * 100.0) / sim.internalFragDenomBytes : 0.0;
+        done = sim.isDone();
+
+        int blocks = sim.blockCount;
+        int copied = perBlock ? blocks : 0;
+        blockNumbers = new int[copied];
+        blockTimeUsedTicks = new int[copied];
+        blockTimesAssigned = new int[copied];
+        blockSizes = new int[copied];
+        blockJobNumbers = new int[copied];
+        blockJobTimeLeft = new int[copied];
+        blockJobTotalTime = new int[copied];
+        int[] usage = new int[USAGE_CLASSES];
+        long usedTicks = 0;
+        for (int i = 0; i < blocks; i++) {
+            int used = sim.usedTicksOf(i);
+            int assigned = sim.assignmentsOf(i);
+            usedTicks += used;
+            usage[usageClass(time, used, assigned)]++;
+            if (perBlock) {
+                blockNumbers[i] = sim.blockNumberOf(i);
+                blockTimeUsedTicks[i] = used;
+                blockTimesAssigned[i] = assigned;
+                blockSizes[i] = sim.blockSizeOf(i);
+                int j = sim.jobInBlockOf(i);
+                blockJobNumbers[i] = j >= 0 ? sim.jobNumber[j] : -1;
+                blockJobTimeLeft[i] = j >= 0 ? sim.timeLeft[j] : 0;
+                blockJobTotalTime[i] = j >= 0 ? sim.totalTime[j] : 0;
+            }
+        }
+        avgBlockUtilPercent = (time > 0 && blocks > 0) ? (usedTicks * 100.0) / ((long) time * blocks) : 0.0;
+        blockCount = blocks;
+        neverUsedBlocks = usage[NEVER_USED];
+        lightlyUsedBlocks = usage[LIGHT];
+        moderatelyUsedBlocks = usage[MODERATE];
+        heavilyUsedBlocks = usage[HEAVY];
+    }
+
+    // Usage classes, by share of the run a block was occupied
+    private static final int NEVER_USED = 0;
+    private static final int UNUSED_SO_FAR = 1;   // assigned, but not yet for a whole tick
+    private static final int LIGHT = 2;
+    private static final int MODERATE = 3;
+    private static final int HEAVY = 4;
+    private static final int USAGE_CLASSES = 5;
+
+    private static int usageClass(int time, int usedTicks, int timesAssigned) {
+        if (timesAssigned == 0) {
+            return NEVER_USED;
+        }
+        double timeFrac = time > 0 ? (usedTicks * 1.0) / time : 0.0;
+        if (timeFrac >= 0.8) return HEAVY;
+        if (timeFrac >= 0.2) return MODERATE;
+        if (timeFrac > 0.0) return LIGHT;
+        return UNUSED_SO_FAR;
+    }
+
+    private static int[] countUsage(int time, int[] usedTicks, int[] timesAssigned) {
+        int[] usage = new int[USAGE_CLASSES];
+        for (int i = 0; i < usedTicks.length; i++) {
+            usage[usageClass(time, usedTicks[i], timesAssigned[i])]++;
+        }
+        return usage;
+    }
+
+    // The getStats() report
+    public String format() {
+        StringBuilder sb = new StringBuilder(formatJobs());
+
+        // Storage utilization by time usage
+        int blocks = blockCount;
+        int neverUsed = neverUsedBlocks;
+        int lightUsed = lightlyUsedBlocks;
+        int moderateUsed = moderatelyUsedBlocks;
+        int heavyUsed = heavilyUsedBlocks;
+        sb.append(String.format("Avg block time utilization: %.2f%%\n", avgBlockUtilPercent));
+        if (blocks > 0) {
+            sb.append(String.format("Partitions never used: %.1f%% (%d/%d)\n", neverUsed * 100.0 / blocks, neverUsed, blocks));
+            sb.append(String.format("Partitions lightly used (<20%% time): %.1f%% (%d/%d)\n", lightUsed * 100.0 / blocks, lightUsed, blocks));
+            sb.append(String.format("Partitions moderately used (20-80%% time): %.1f%% (%d/%d)\n", moderateUsed * 100.0 / blocks, moderateUsed, blocks));
+            sb.append(String.format("Partitions heavily used (>=80%% time): %.1f%% (%d/%d)\n", heavyUsed * 100.0 / blocks, heavyUsed, blocks));
+        }
+        return sb.toString();
+    }
+
+    // The job and internal fragmentation lines of the report, without the per-block ones
+    public String formatJobs() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Jobs Completed: ").append(doneCount).append("\n");
+        sb.append("Jobs Rejected: ").append(rejectedCount).append("\n");
+        sb.append("Total Time: ").append(time).append(" ticks\n");
+        sb.append(String.format("Throughput: %.3f jobs/tick\n", throughput));
+        sb.append(String.format("Avg waiting queue length: %.2f (max %d)\n", avgQueueLength, queueLengthMax));
+        sb.append(String.format("Avg waiting time in queue: %.2f ticks\n", avgWaitTime));
+
+        // Internal fragmentation
+        sb.append(String.format("Avg internal fragmentation: %.0f bytes (%.2f%%) per active tick\n",
+            avgInternalFragBytes, avgInternalFragPercent));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+// Workloads for the JMH benchmarks in src/jmh/java/bench:
+//   PolicyBenchmark   tick throughput and full-run latency per policy, block count,
+//                     job count and size distribution
+//   BacklogBenchmark  per-tick cost with a standing queue of waiting jobs
+//   ShardedBenchmark  whole runs on one engine against ShardedSimulation pools
+//
+// Build and run (-prof gc adds the allocation rate; gc.alloc.rate.norm is bytes per tick):
+//   mvn -B package
+//   java -jar target/benchmarks.jar -prof gc
+//   java -jar target/benchmarks.jar PolicyBenchmark.tick -p policy=best-fit -p blocks=100000 -prof gc
+//
+// JMH does not accept benchmarks in the unnamed package, and a named package cannot import
+// the simulator classes, so the benchmarks call the static methods here by name.
+public class SimulatorBenchmark {
+
+    // A quiet simulator that replays the job table over and over. Each getAsBoolean() runs
+    // one tick and returns true when that tick finished a run; the simulator is then reset
+    // and set up again, reusing its blocks and pooled jobs, so back-to-back runs allocate
+    // next to nothing and the allocation rate measured is the tick loop's own.
+    public static BooleanSupplier newRun(String policy, int[][] blocks, int[][] jobs, boolean bulk) {
+        final SimulationEngine sim = SimulationEngine.create(policy);
+        sim.allBlocks = blocks;
+        sim.allJobs = jobs.clone();  // best-fit's setup() sorts the job table in place
+        sim.setQuiet(true);
+        sim.setBulkPlacement(bulk);
+        sim.setJobPool(new JobPool(jobs.length));
+        sim.setup();
+        return new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                sim.runTick();
+                if (!sim.isDone()) {
+                    return false;
+                }
+                sim.reset();
+                sim.setup();
+                return true;
+            }
+        };
+    }
+
+    // Like newRun, but every job arrives at tick 0 and that tick is run as part of the
+    // restart, so each run starts with the whole table queued and drains it
+    public static BooleanSupplier newBacklogRun(String policy, int[][] blocks, final int[][] jobs, boolean bulk) {
+        final SimulationEngine sim = SimulationEngine.create(policy);
+        sim.allBlocks = blocks;
+        sim.setQuiet(true);
+        sim.setBulkPlacement(bulk);
+        sim.setJobPool(new JobPool(jobs.length));
+        sim.setJobSource(allAtOnce(jobs));
+        sim.setup();
+        sim.runTick();
+        return new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                sim.runTick();
+                if (!sim.isDone()) {
+                    return false;
+                }
+                sim.reset();
+                sim.setJobSource(allAtOnce(jobs));
+                sim.setup();
+                sim.runTick();
+                return true;
+            }
+        };
+    }
+
+    // One whole run of the ShardedSimulation workload: on a single engine if shards is 0,
+    // otherwise on that many pools meeting every syncTicks ticks. Returns the ticks run.
+    public static int runSharded(String policy, int[][] blocks, long jobs, int shards, int syncTicks) {
+        JobSource workload = ShardedSimulation.workload(1, jobs, blocks.length);
+        if (shards == 0) {
+            SimulationEngine sim = SimulationEngine.create(policy);
+            sim.allBlocks = blocks;
+            sim.setJobSource(workload);
+            sim.setup();
+            sim.setQuiet(true);
+            while (!sim.isDone()) {
+                sim.runTick();
+            }
+            return sim.getTime();
+        }
+        ShardedSimulation sharded = new ShardedSimulation(policy, blocks, shards, workload, syncTicks);
+        sharded.run();
+        return sharded.time;
+    }
+
+    private static JobSource allAtOnce(int[][] jobs) {
+        return new ArrayJobSource(jobs) {
+            @Override
+            public int nextArrivalTime() {
+                return 0;
+            }
+        };
+    }
+
+    // Block table [blockNumber, size] with sizes 500, 1000, ... 9500
+    public static int[][] makeBlocks(int count, long seed) {
+        return WorkloadGenerator.makeBlocks(count, 500, 9500, 500, seed);
+    }
+
+    // Job table [jobNumber, time, size]
+    //   uniform: 100 - 10000, small: 100 - 2000, large: 5000 - 10000
+    public static int[][] makeJobs(int count, String dist, long seed) {
+        Random random = new Random(seed);
+        int[][] jobs = new int[count][3];
+        for (int i = 0; i < count; i++) {
+            int size;
+            if (dist.equals("small")) {
+                size = 100 + random.nextInt(1901);
+            } else if (dist.equals("large")) {
+                size = 5000 + random.nextInt(5001);
+            } else if (dist.equals("uniform")) {
+                size = 100 + random.nextInt(9901);
+            } else {
+                throw new IllegalArgumentException("Unknown distribution: " + dist);
+            }
+            jobs[i][0] = i + 1;
+            jobs[i][1] = 1 + random.nextInt(10);
+            jobs[i][2] = size;
+        }
+        return jobs;
+    }
+}
@@ -0,0 +1,60 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Exposes a simulator's counters over JMX (e.g. to jconsole) while a headless run is going.
+//
+// The simulation thread never takes a lock for this: every publishInterval ticks it
+// builds a SimulationStats snapshot and stores it in the volatile publishedStats field,
+// and the getters here only read that field. Polling costs one volatile read, and the
+// tick loop pays for a snapshot only once per interval.
+public class SimulatorMetrics implements SimulatorMetricsMBean {
+
+    public SimulationEngine sim;
+    public ObjectName name;
+
+    public SimulatorMetrics(SimulationEngine sim) {
+        this.sim = sim;
+    }
+
+    // Register sim with the platform MBean server as MemorySimulator:type=Simulation,name=<name>
+    // and have it publish a snapshot every publishInterval ticks. Call from the thread that
+    // runs the simulation, before or between ticks.
+    public static SimulatorMetrics register(SimulationEngine sim, String name, int publishInterval) throws JMException {
+        SimulatorMetrics metrics = new SimulatorMetrics(sim);
+        sim.setPublishInterval(publishInterval);
+        sim.publishStats();
+        metrics.name = new ObjectName("MemorySimulator:type=Simulation,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(metrics, metrics.name);
+        return metrics;
+    }
+
+    public void unregister() throws JMException {
+        if (name != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            name = null;
+        }
+    }
+
+    private SimulationStats stats() {
+        return sim.publishedStats;
+    }
+
+    public String getAlgorithm() { return stats().algorithm; }
+    public int getCurrentTime() { return stats().time; }
+    public int getRunningJobs() { return stats().runningCount; }
+    public int getWaitingJobs() { return stats().waitingCount; }
+    public int getDoneJobs() { return stats().doneCount; }
+    public int getRejectedJobs() { return stats().rejectedCount; }
+    public int getQueueLengthMax() { return stats().queueLengthMax; }
+    public double getAvgQueueLength() { return stats().avgQueueLength; }
+    public double getAvgWaitTime() { return stats().avgWaitTime; }
+    public double getThroughput() { return stats().throughput; }
+    public double getAvgInternalFragmentationBytes() { return stats().avgInternalFragBytes; }
+    public double getAvgInternalFragmentationPercent() { return stats().avgInternalFragPercent; }
+    public double getAvgBlockUtilizationPercent() { return stats().avgBlockUtilPercent; }
+    public int[] getBlockTimeUsedTicks() { return stats().blockTimeUsedTicks.clone(); }
+    public int[] getBlockTimesAssigned() { return stats().blockTimesAssigned.clone(); }
+}
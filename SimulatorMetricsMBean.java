@@ -0,0 +1,18 @@
+// JMX view of a running simulator, see SimulatorMetrics
+public interface SimulatorMetricsMBean {
+    String getAlgorithm();
+    int getCurrentTime();
+    int getRunningJobs();
+    int getWaitingJobs();
+    int getDoneJobs();
+    int getRejectedJobs();
+    int getQueueLengthMax();
+    double getAvgQueueLength();
+    double getAvgWaitTime();
+    double getThroughput();
+    double getAvgInternalFragmentationBytes();
+    double getAvgInternalFragmentationPercent();
+    double getAvgBlockUtilizationPercent();
+    int[] getBlockTimeUsedTicks();
+    int[] getBlockTimesAssigned();
+}
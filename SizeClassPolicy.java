@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+
+// Segregated power-of-two size classes over the fixed partitions. Free blocks are kept in one
+// free list per class (class c holds sizes in [2^c, 2^(c+1))), and a bitmask records which
+// classes have a free block. A request is rounded up to a power of two, 2^c, and served from
+// the smallest non-empty class >= c, where every block is guaranteed to fit: O(1).
+//
+// Partitions are never split or coalesced; only the size classes are used. If no class >= c
+// has a free block, the largest free block of class c-1 is tried against the exact request,
+// so a job that fits some partition is never stuck forever. Each class also keeps its free
+// blocks in a FreeBlockHeap for that fallback, so taking or freeing a block is O(log n).
+// (Buddy allocation proper, splitting and merging blocks, is BuddyPolicy on the
+// variable-partition DynamicMemorySimulator.)
+public class SizeClassPolicy implements AllocationPolicy {
+
+    public static final int CLASSES = 32;
+
+    public ArrayList<MemoryBlock> blocks;
+    public int[][] freeLists;        // per class, a stack of free block indexes
+    public int[] freeCount;          // per class, number of free blocks
+    public int[] slotOf;             // block index -> position in its class's stack
+    public FreeBlockHeap[] largest;  // per class, the same free blocks by size
+    public int nonEmptyClasses;      // bit c set if class c has a free block
+
+    public String getName() { return "Size-Class"; }
+    public String getLoadTag() { return " (SIZE-CLASS)"; }
+    public String getWaitingReason() { return "no suitable block available"; }
+
+    public static int blockClass(int blockSize) {
+        return blockSize <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(blockSize);
+    }
+
+    // Smallest c with 2^c >= memoryNeeded
+    public static int requestClass(int memoryNeeded) {
+        return memoryNeeded <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(memoryNeeded - 1);
+    }
+
+    public void init(ArrayList<MemoryBlock> blocks) {
+        clear(blocks);
+        for (int i = 0; i < blocks.size(); i++) {
+            blockFreed(i);
+        }
+    }
+
+    // Empty free lists and heaps sized for the blocks of each class
+    private void clear(ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        int[] classSizes = new int[CLASSES];
+        for (int i = 0; i < blocks.size(); i++) {
+            classSizes[blockClass(blocks.get(i).blockSize)]++;
+        }
+        int[] heapPositions = new int[blocks.size()];
+        freeLists = new int[CLASSES][];
+        largest = new FreeBlockHeap[CLASSES];
+        for (int c = 0; c < CLASSES; c++) {
+            freeLists[c] = new int[classSizes[c]];
+            largest[c] = new FreeBlockHeap(blocks, classSizes[c], heapPositions);
+        }
+        freeCount = new int[CLASSES];
+        slotOf = new int[blocks.size()];
+        nonEmptyClasses = 0;
+    }
+
+    public int selectBlock(int memoryNeeded) {
+        int c = requestClass(memoryNeeded);
+        int candidates = c < CLASSES ? nonEmptyClasses & (-1 << c) : 0;
+        if (candidates != 0) {
+            int cls = Integer.numberOfTrailingZeros(candidates);
+            return freeLists[cls][freeCount[cls] - 1];
+        }
+
+        // Nothing in the rounded-up classes; the largest block one class down may still fit exactly
+        int lower = c - 1;
+        if (lower >= 0 && lower < CLASSES) {
+            int blockIndex = largest[lower].top();
+            if (blockIndex >= 0 && blocks.get(blockIndex).blockSize >= memoryNeeded) {
+                return blockIndex;
+            }
+        }
+        return -1;
+    }
+
+    public void blockUsed(int blockIndex) {
+        // swap-remove from the class stack
+        int cls = blockClass(blocks.get(blockIndex).blockSize);
+        int slot = slotOf[blockIndex];
+        int last = freeLists[cls][--freeCount[cls]];
+        freeLists[cls][slot] = last;
+        slotOf[last] = slot;
+        largest[cls].remove(blockIndex);
+        if (freeCount[cls] == 0) {
+            nonEmptyClasses &= ~(1 << cls);
+        }
+    }
+
+    public void blockFreed(int blockIndex) {
+        int cls = blockClass(blocks.get(blockIndex).blockSize);
+        slotOf[blockIndex] = freeCount[cls];
+        freeLists[cls][freeCount[cls]++] = blockIndex;
+        largest[cls].add(blockIndex);
+        nonEmptyClasses |= 1 << cls;
+    }
+
+    // The order of each class's stack decides which block is taken next, so save it:
+    // for every class, the number of free blocks followed by their indexes bottom to top.
+    // The heaps are ordered on (size, index), so they are rebuilt from the same blocks.
+    public int[] getCheckpointState() {
+        int total = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            total += 1 + freeCount[c];
+        }
+        int[] state = new int[total];
+        int pos = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            state[pos++] = freeCount[c];
+            for (int s = 0; s < freeCount[c]; s++) {
+                state[pos++] = freeLists[c][s];
+            }
+        }
+        return state;
+    }
+
+    public void restoreCheckpoint(ArrayList<MemoryBlock> blocks, int[] state) {
+        clear(blocks);
+        int pos = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            int count = state[pos++];
+            for (int s = 0; s < count; s++) {
+                blockFreed(state[pos++]);
+            }
+        }
+    }
+
+    // Upper bound of the highest non-empty class (the engine only uses this to skip jobs
+    // that cannot fit, so over-estimating is safe)
+    public int largestFree() {
+        if (nonEmptyClasses == 0) {
+            return -1;
+        }
+        int cls = 31 - Integer.numberOfLeadingZeros(nonEmptyClasses);
+        return cls >= 30 ? Integer.MAX_VALUE : (1 << (cls + 1)) - 1;
+    }
+}
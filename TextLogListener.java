@@ -0,0 +1,68 @@
+// Builds the human-readable tick log shown in the GUI.
+// This is the default listener of both simulators; runOneTick() returns its text.
+public class TextLogListener implements SimulationListener {
+
+    public StringBuilder log;
+    public String loadTag;         // appended to "loaded into Block N" lines
+    public String waitingReason;   // shown when a job could not be placed
+
+    public TextLogListener(String loadTag, String waitingReason) {
+        this.log = new StringBuilder();
+        this.loadTag = loadTag;
+        this.waitingReason = waitingReason;
+    }
+
+    // Return everything logged since the last call and start over
+    public String takeLog() {
+        String text = log.toString();
+        log.setLength(0);
+        return text;
+    }
+
+    @Override
+    public void tickStarted(int time) {
+        log.append("=== Time ").append(time).append(" ===\n");
+    }
+
+    @Override
+    public void jobArrived(Job job) {
+        log.append("Job ").append(job.jobNumber).append(" arrives (Size: ").append(job.memoryNeeded)
+           .append(", Time: ").append(job.totalTime).append(")\n");
+    }
+
+    @Override
+    public void jobRejected(Job job) {
+        log.append("Job ").append(job.jobNumber).append(" REJECTED - Too big!\n");
+    }
+
+    @Override
+    public void jobFinished(Job job, MemoryBlock block) {
+        log.append("Job ").append(job.jobNumber).append(" finished!\n");
+        log.append("Block ").append(block.blockNumber).append(" is now free\n");
+    }
+
+    @Override
+    public void jobLoaded(Job job, MemoryBlock block) {
+        int wasted = block.getWastedSpace();
+        double percent = (wasted * 100.0) / block.blockSize;
+        log.append("Job ").append(job.jobNumber).append(" loaded into Block ").append(block.blockNumber)
+           .append(loadTag).append("\n");
+        log.append("Wasted space: ").append(wasted).append(" (").append(String.format("%.1f", percent)).append("%)\n");
+    }
+
+    @Override
+    public void jobWaiting(Job job) {
+        log.append("Job ").append(job.jobNumber).append(" waiting (").append(waitingReason).append(")\n");
+    }
+
+    @Override
+    public void idleTicksSkipped(int fromTime, int ticks) {
+        log.append("=== Time ").append(fromTime).append("-").append(fromTime + ticks - 1).append(" ===\n");
+        log.append("No arrivals or completions, skipped ").append(ticks).append(" ticks\n\n");
+    }
+
+    @Override
+    public void tickEnded(int time) {
+        log.append("\n");
+    }
+}
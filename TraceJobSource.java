@@ -0,0 +1,65 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+// Streams jobs from a trace file, one record at a time, as the simulation reaches their
+// arrival time. Only the next record is ever held on the heap.
+// Record layout: [arrivalTime, jobNumber, time, size], sorted by arrivalTime.
+public class TraceJobSource implements JobSource, Closeable {
+
+    public MappedTraceReader reader;
+    public int[] nextRecord;
+    public boolean hasRecord;
+    public JobPool pool;           // null = allocate every job
+
+    public TraceJobSource(Path path) throws IOException {
+        this.reader = new MappedTraceReader(path, 4);
+        this.nextRecord = new int[4];
+        this.hasRecord = reader.readRecord(nextRecord);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasRecord;
+    }
+
+    @Override
+    public int nextArrivalTime() {
+        return nextRecord[0];
+    }
+
+    @Override
+    public Job next() {
+        Job job = pool != null ? pool.acquire(nextRecord[1], nextRecord[2], nextRecord[3])
+                               : new Job(nextRecord[1], nextRecord[2], nextRecord[3]);
+        try {
+            hasRecord = reader.readRecord(nextRecord);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read job trace", e);
+        }
+        return job;
+    }
+
+    // Skip records without building Job objects
+    @Override
+    public void skip(long count) {
+        try {
+            for (long i = 0; i < count && hasRecord; i++) {
+                hasRecord = reader.readRecord(nextRecord);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read job trace", e);
+        }
+    }
+
+    @Override
+    public void setJobPool(JobPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+// Variable partitions for DynamicMemorySimulator. Instead of fixed blocks, memory is one
+// address space of `capacity` bytes, and a job carves exactly memoryNeeded bytes out of the
+// start of a free extent. When it finishes, its extent is returned and merged with the
+// free neighbours.
+//
+// The engine's block list holds one MemoryBlock per allocated extent (blockNumber = start
+// address, blockSize = length). Slots are reused once their job finishes, so the list only
+// grows to the largest number of jobs ever running at once.
+//
+// Free extents are kept in a FreeExtentTree (address ordered, for first-fit and coalescing,
+// O(log n)). Best-Fit also keeps them in freeBySize, (length << 32 | start).
+public class VariablePartitionPolicy implements AllocationPolicy {
+
+    // Placement strategies
+    public static final int FIRST_FIT = 0;   // lowest address that fits
+    public static final int BEST_FIT = 1;    // smallest extent that fits, lowest address on ties
+    public static final int BUDDY = 2;       // power-of-two blocks, see BuddyPolicy
+
+    public int placement;
+    public int capacity;
+    public ArrayList<MemoryBlock> blocks;
+    public FreeExtentTree free;
+    public TreeSet<Long> freeBySize;  // only kept for BEST_FIT
+    public int[] freeSlots;           // indexes of blocks with no job, as a stack
+    public int freeSlotCount;
+    public int[] slotOf;              // block index -> position in freeSlots
+
+    public VariablePartitionPolicy(int placement) {
+        this.placement = placement;
+        free = new FreeExtentTree();
+        freeBySize = new TreeSet<>();
+    }
+
+    public String getName() { return placement == BEST_FIT ? "Dynamic Best-Fit" : "Dynamic First-Fit"; }
+    public String getLoadTag() { return " (DYNAMIC)"; }
+    public String getWaitingReason() { return "no free extent large enough"; }
+
+    // Start with one free extent covering the whole address space and no blocks
+    public void init(ArrayList<MemoryBlock> blocks) {
+        initSlots(blocks);
+        free.clear();
+        freeBySize.clear();
+        if (capacity > 0) {
+            addFree(0, capacity);
+        }
+    }
+
+    private static long sizeKey(int start, int length) {
+        return ((long) length << 32) | start;
+    }
+
+    private void addFree(int start, int length) {
+        free.add(start, length);
+        if (placement == BEST_FIT) {
+            freeBySize.add(sizeKey(start, length));
+        }
+    }
+
+    private void removeFree(int start, int length) {
+        free.remove(start);
+        if (placement == BEST_FIT) {
+            freeBySize.remove(sizeKey(start, length));
+        }
+    }
+
+    // Pick the extent and point a free block at its first memoryNeeded bytes.
+    // The extent itself is only taken in blockUsed().
+    public int selectBlock(int memoryNeeded) {
+        int start;
+        if (placement == BEST_FIT) {
+            Long key = freeBySize.ceiling(sizeKey(0, memoryNeeded));
+            if (key == null) {
+                return -1;
+            }
+            start = (int) (key & 0xffffffffL);
+        } else {
+            int node = free.findFirst(memoryNeeded);
+            if (node == 0) {
+                return -1;
+            }
+            start = free.start[node];
+        }
+        return slotAt(start, memoryNeeded);
+    }
+
+    // No blocks yet: they are added as jobs need them
+    protected void initSlots(ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        blocks.clear();
+        freeSlots = new int[16];
+        freeSlotCount = 0;
+        slotOf = new int[16];
+    }
+
+    // Point a free block (a new one if there is none) at size bytes from address start
+    protected int slotAt(int start, int size) {
+        if (freeSlotCount == 0) {
+            addSlot();
+        }
+        int slot = freeSlots[freeSlotCount - 1];
+        MemoryBlock block = blocks.get(slot);
+        block.blockNumber = start;
+        block.blockSize = size;
+        return slot;
+    }
+
+    private void addSlot() {
+        int slot = blocks.size();
+        MemoryBlock block = new MemoryBlock(-1, 0);
+        block.blockIndex = slot;
+        blocks.add(block);
+        if (slot == slotOf.length) {
+            slotOf = Arrays.copyOf(slotOf, slot * 2);
+            freeSlots = Arrays.copyOf(freeSlots, slot * 2);
+        }
+        pushSlot(slot);
+    }
+
+    // The block has no job any more
+    protected void pushSlot(int slot) {
+        slotOf[slot] = freeSlotCount;
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    // The block was loaded: swap-remove it from the free slots
+    protected void useSlot(int blockIndex) {
+        int last = freeSlots[--freeSlotCount];
+        int pos = slotOf[blockIndex];
+        freeSlots[pos] = last;
+        slotOf[last] = pos;
+    }
+
+    // Carve the block's extent out of the free extent it starts
+    public void blockUsed(int blockIndex) {
+        useSlot(blockIndex);
+        MemoryBlock block = blocks.get(blockIndex);
+        int start = block.blockNumber;
+        int node = free.find(start);
+        if (node == 0) {
+            throw new IllegalStateException("No free extent starts at address " + start);
+        }
+        int length = free.length[node];
+        removeFree(start, length);
+        if (length > block.blockSize) {
+            addFree(start + block.blockSize, length - block.blockSize);
+        }
+    }
+
+    // Return the block's extent, merged with the free extents right before and after it
+    public void blockFreed(int blockIndex) {
+        MemoryBlock block = blocks.get(blockIndex);
+        int start = block.blockNumber;
+        int length = block.blockSize;
+        int before = free.floor(start - 1);
+        if (before != 0 && free.start[before] + free.length[before] == start) {
+            start = free.start[before];
+            length += free.length[before];
+            removeFree(start, free.length[before]);
+        }
+        int after = free.find(start + length);
+        if (after != 0) {
+            int afterLength = free.length[after];
+            removeFree(start + length, afterLength);
+            length += afterLength;
+        }
+        addFree(start, length);
+        pushSlot(blockIndex);
+    }
+
+    public int largestFree() {
+        return free.largest();
+    }
+
+    public int freeExtentCount() {
+        return free.count;
+    }
+
+    // Blocks come and go with the jobs, so there is no fixed table to restore into
+    public void restoreCheckpoint(ArrayList<MemoryBlock> blocks, int[] state) {
+        throw new IllegalStateException("Checkpoints need fixed partitions");
+    }
+}
@@ -0,0 +1,99 @@
+// Waiting queue bucketed by memoryNeeded size class (class c holds sizes of bit length c,
+// i.e. [2^(c-1), 2^c - 1]). Each bucket is a FIFO JobQueue, and every job carries the
+// sequence number it was queued with, so a scan can merge the buckets back into the
+// original FIFO order.
+//
+// A scan only visits buckets whose smallest possible size is <= scanLimit, so when the
+// largest free block is small, jobs that cannot possibly be placed are never looked at.
+// Lowering scanLimit during a scan drops more buckets from the rest of it.
+//
+//   queue.startScan(largestFree);
+//   Job job;
+//   while ((job = queue.nextInScan()) != null) {
+//       ...                                   // job may be removed here
+//       queue.scanLimit = newLargestFree;
+//   }
+public class WaitingQueue {
+
+    public static final int CLASSES = 33;  // bit lengths 0..32
+
+    public JobQueue[] buckets;
+    public long nextSeq;
+    public int count;
+    // Scan state
+    public Job[] cursors;      // next job to visit in each bucket
+    public int scanLimit;      // skip buckets whose jobs are all bigger than this
+
+    public WaitingQueue() {
+        buckets = new JobQueue[CLASSES];
+        for (int c = 0; c < CLASSES; c++) {
+            buckets[c] = new JobQueue();
+        }
+        cursors = new Job[CLASSES];
+        nextSeq = 0;
+        count = 0;
+        scanLimit = -1;
+    }
+
+    public static int sizeClass(int memoryNeeded) {
+        return memoryNeeded <= 0 ? 0 : 32 - Integer.numberOfLeadingZeros(memoryNeeded);
+    }
+
+    // Smallest memoryNeeded that can be in a size class
+    public static int classMin(int sizeClass) {
+        return sizeClass == 0 ? 0 : 1 << (sizeClass - 1);
+    }
+
+    public void add(Job job) {
+        job.queueSeq = nextSeq++;
+        buckets[sizeClass(job.memoryNeeded)].add(job);
+        count++;
+    }
+
+    public void remove(Job job) {
+        buckets[sizeClass(job.memoryNeeded)].remove(job);
+        count--;
+    }
+
+    public void clear() {
+        for (int c = 0; c < CLASSES; c++) {
+            buckets[c].clear();
+            cursors[c] = null;
+        }
+        nextSeq = 0;
+        count = 0;
+        scanLimit = -1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Begin a FIFO-order scan over the jobs that might fit in a block of size limit
+    public void startScan(int limit) {
+        scanLimit = limit;
+        for (int c = 0; c < CLASSES; c++) {
+            cursors[c] = buckets[c].head;
+        }
+    }
+
+    // Next job in FIFO order among the buckets still within scanLimit, or null when done.
+    // The cursor moves past the job before it is returned, so the caller may remove it.
+    public Job nextInScan() {
+        int bestClass = -1;
+        long bestSeq = Long.MAX_VALUE;
+        for (int c = 0; c < CLASSES && classMin(c) <= scanLimit; c++) {
+            Job job = cursors[c];
+            if (job != null && job.queueSeq < bestSeq) {
+                bestSeq = job.queueSeq;
+                bestClass = c;
+            }
+        }
+        if (bestClass < 0) {
+            return null;
+        }
+        Job job = cursors[bestClass];
+        cursors[bestClass] = job.nextInQueue;
+        return job;
+    }
+}
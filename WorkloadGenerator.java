@@ -0,0 +1,305 @@
+import java.util.Random;
+
+// Seeded synthetic workload for stress runs. Jobs are generated one at a time as the
+// simulator asks for them, so a run of millions of jobs holds only the next job on the
+// heap. The same seed and settings always give the same job stream.
+//
+// Arrivals:  fixed   - a steady rate, e.g. rate 1 is one job per tick like allJobs
+//            poisson - exponential gaps between arrivals, `rate` jobs per tick on average
+//            bursty  - alternates between a burst rate and a quiet rate, staying in each
+//                      state for an exponentially distributed number of ticks
+// Sizes:     uniform or log-normal (clamped to [minSize, maxSize])
+// Runtimes:  uniform or Pareto (heavy tail, clamped to [minRuntime, maxRuntime])
+//
+// Arrivals, sizes and runtimes each draw from their own Random, so changing one
+// distribution does not change the other two. Job numbers are ints, so next() fails
+// rather than wrap once Integer.MAX_VALUE jobs have been generated.
+//
+// Usage: java WorkloadGenerator [jobs=1000000] [blocks=1000] [seed=1] [policy=first-fit]
+//                               [arrivals=poisson|bursty|fixed] [rate=1.0]
+//                               [sizes=lognormal|uniform] [runtimes=pareto|uniform]
+public class WorkloadGenerator implements JobSource {
+
+    public long seed;
+    public long jobCount;
+
+    public String arrivals;
+    public double rate;                // jobs per tick (fixed, poisson)
+    public double burstRate;           // jobs per tick while in a burst
+    public double quietRate;           // jobs per tick between bursts
+    public double meanBurstTicks;
+    public double meanQuietTicks;
+
+    public String sizes;
+    public int minSize;
+    public int maxSize;
+    public double sizeMedian;          // log-normal: exp(mu)
+    public double sizeSigma;
+
+    public String runtimes;
+    public int minRuntime;
+    public int maxRuntime;
+    public double runtimeAlpha;        // Pareto shape, smaller is heavier
+
+    // Stream state
+    public Random arrivalRandom;
+    public Random sizeRandom;
+    public Random runtimeRandom;
+    public long generated;             // jobs handed out so far
+    public double clock;               // arrival time of the next job, in fractional ticks
+    public boolean inBurst;
+    public double stateEnd;            // when the current burst or quiet period ends
+    public JobPool pool;               // null = allocate every job
+
+    public WorkloadGenerator(long seed, long jobCount) {
+        this.seed = seed;
+        this.jobCount = jobCount;
+        setPoissonArrivals(1.0);
+        setLogNormalSizes(1000, 1.0, 100, 10000);
+        setParetoRuntimes(1.5, 1, 1000);
+    }
+
+    public void setFixedArrivals(double jobsPerTick) {
+        arrivals = "fixed";
+        rate = jobsPerTick;
+        restart();
+    }
+
+    public void setPoissonArrivals(double jobsPerTick) {
+        arrivals = "poisson";
+        rate = jobsPerTick;
+        restart();
+    }
+
+    public void setBurstyArrivals(double burstRate, double quietRate, double meanBurstTicks, double meanQuietTicks) {
+        arrivals = "bursty";
+        this.burstRate = burstRate;
+        this.quietRate = quietRate;
+        this.meanBurstTicks = meanBurstTicks;
+        this.meanQuietTicks = meanQuietTicks;
+        restart();
+    }
+
+    public void setUniformSizes(int min, int max) {
+        sizes = "uniform";
+        minSize = min;
+        maxSize = max;
+        restart();
+    }
+
+    public void setLogNormalSizes(double median, double sigma, int min, int max) {
+        sizes = "lognormal";
+        sizeMedian = median;
+        sizeSigma = sigma;
+        minSize = min;
+        maxSize = max;
+        restart();
+    }
+
+    public void setUniformRuntimes(int min, int max) {
+        runtimes = "uniform";
+        minRuntime = min;
+        maxRuntime = max;
+        restart();
+    }
+
+    public void setParetoRuntimes(double alpha, int min, int max) {
+        runtimes = "pareto";
+        runtimeAlpha = alpha;
+        minRuntime = min;
+        maxRuntime = max;
+        restart();
+    }
+
+    // Go back to the first job of the stream
+    public void restart() {
+        arrivalRandom = new Random(seed);
+        sizeRandom = new Random(seed + 1);
+        runtimeRandom = new Random(seed + 2);
+        generated = 0;
+        clock = 0.0;
+        inBurst = true;
+        stateEnd = "bursty".equals(arrivals) ? exponential(1.0 / meanBurstTicks) : Double.MAX_VALUE;
+        if (!"fixed".equals(arrivals)) {
+            advanceClock();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return generated < jobCount;
+    }
+
+    @Override
+    public int nextArrivalTime() {
+        return clock < Integer.MAX_VALUE ? (int) clock : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Job next() {
+        // job numbers are ints, so a stream ends at job Integer.MAX_VALUE
+        if (generated == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Job numbers past Integer.MAX_VALUE are not supported");
+        }
+        generated++;
+        int runtime = nextRuntime();
+        int size = nextSize();
+        Job job = pool != null ? pool.acquire((int) generated, runtime, size) : new Job((int) generated, runtime, size);
+        advanceClock();
+        return job;
+    }
+
+    @Override
+    public void setJobPool(JobPool pool) {
+        this.pool = pool;
+    }
+
+    // Same draws as next(), so the stream after a skip matches a stream that was read
+    @Override
+    public void skip(long count) {
+        for (long i = 0; i < count && hasNext(); i++) {
+            generated++;
+            nextRuntime();
+            nextSize();
+            advanceClock();
+        }
+    }
+
+    private void advanceClock() {
+        switch (arrivals) {
+            case "fixed":
+                clock += 1.0 / rate;
+                break;
+            case "poisson":
+                clock += exponential(rate);
+                break;
+            case "bursty":
+                // The gap is memoryless, so when a state ends before the next arrival we
+                // can just start drawing again from the switch point at the new rate
+                while (true) {
+                    double stateRate = inBurst ? burstRate : quietRate;
+                    double gap = stateRate > 0 ? exponential(stateRate) : Double.MAX_VALUE;
+                    if (clock + gap < stateEnd) {
+                        clock += gap;
+                        break;
+                    }
+                    clock = stateEnd;
+                    inBurst = !inBurst;
+                    stateEnd = clock + exponential(1.0 / (inBurst ? meanBurstTicks : meanQuietTicks));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown arrival process: " + arrivals);
+        }
+    }
+
+    private int nextSize() {
+        switch (sizes) {
+            case "uniform":
+                return minSize + sizeRandom.nextInt(maxSize - minSize + 1);
+            case "lognormal":
+                return clamp(sizeMedian * Math.exp(sizeSigma * sizeRandom.nextGaussian()), minSize, maxSize);
+            default:
+                throw new IllegalArgumentException("Unknown size distribution: " + sizes);
+        }
+    }
+
+    private int nextRuntime() {
+        switch (runtimes) {
+            case "uniform":
+                return minRuntime + runtimeRandom.nextInt(maxRuntime - minRuntime + 1);
+            case "pareto":
+                // inverse transform: min / U^(1/alpha)
+                double u = 1.0 - runtimeRandom.nextDouble();
+                return clamp(minRuntime / Math.pow(u, 1.0 / runtimeAlpha), minRuntime, maxRuntime);
+            default:
+                throw new IllegalArgumentException("Unknown runtime distribution: " + runtimes);
+        }
+    }
+
+    private double exponential(double ratePerTick) {
+        return -Math.log(1.0 - arrivalRandom.nextDouble()) / ratePerTick;
+    }
+
+    private static int clamp(double value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, Math.round(value)));
+    }
+
+    // A [blockNumber, size] table of any length for SimulationEngine.allBlocks,
+    // sizes uniform in [minSize, maxSize] and rounded to multiples of `granularity`
+    public static int[][] makeBlocks(int count, int minSize, int maxSize, int granularity, long seed) {
+        Random random = new Random(seed);
+        int steps = (maxSize - minSize) / granularity + 1;
+        int[][] blocks = new int[count][2];
+        for (int i = 0; i < count; i++) {
+            blocks[i][0] = i + 1;
+            blocks[i][1] = minSize + random.nextInt(steps) * granularity;
+        }
+        return blocks;
+    }
+
+    // Stream a generated workload through one simulator and print the results
+    public static void main(String[] args) {
+        long jobs = 1000000;
+        int blocks = 1000;
+        long seed = 1;
+        String policy = "first-fit";
+        String arrivalProcess = "poisson";
+        double rate = 1.0;
+        String sizeDist = "lognormal";
+        String runtimeDist = "pareto";
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "jobs": jobs = Long.parseLong(value); break;
+                case "blocks": blocks = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "policy": policy = value; break;
+                case "arrivals": arrivalProcess = value; break;
+                case "rate": rate = Double.parseDouble(value); break;
+                case "sizes": sizeDist = value; break;
+                case "runtimes": runtimeDist = value; break;
+                default: throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(seed, jobs);
+        switch (arrivalProcess) {
+            case "fixed": generator.setFixedArrivals(rate); break;
+            case "poisson": generator.setPoissonArrivals(rate); break;
+            case "bursty": generator.setBurstyArrivals(rate * 10, rate / 10, 50, 200); break;
+            default: throw new IllegalArgumentException("Unknown arrival process: " + arrivalProcess);
+        }
+        if (sizeDist.equals("uniform")) {
+            generator.setUniformSizes(100, 10000);
+        } else if (!sizeDist.equals("lognormal")) {
+            throw new IllegalArgumentException("Unknown size distribution: " + sizeDist);
+        }
+        if (runtimeDist.equals("uniform")) {
+            generator.setUniformRuntimes(1, 20);
+        } else if (!runtimeDist.equals("pareto")) {
+            throw new IllegalArgumentException("Unknown runtime distribution: " + runtimeDist);
+        }
+
+        SimulationEngine sim = SimulationEngine.create(policy);
+        sim.allBlocks = makeBlocks(blocks, 500, 10000, 500, seed);
+        sim.setJobSource(generator);
+        sim.setup();
+        sim.setQuiet(true);
+        long start = System.nanoTime();
+        while (!sim.isDone()) {
+            sim.runUntilNextEvent();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+        System.out.println(sim.getAlgorithmName() + ", " + jobs + " jobs, " + blocks + " blocks, "
+            + arrivalProcess + " arrivals, " + elapsedMs + " ms");
+        System.out.print(sim.getStats());
+        System.out.print(sim.getPercentileStats());
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.ArrayList;
+
+// Worst-Fit: the largest free block, leaving the biggest leftover. Free blocks sit in a
+// FreeBlockHeap on (blockSize, lower index first), so the choice is always the top of the
+// heap: O(1) to select, O(log n) to take or free a block.
+public class WorstFitPolicy implements AllocationPolicy {
+
+    public ArrayList<MemoryBlock> blocks;
+    public FreeBlockHeap free;
+
+    public String getName() { return "Worst-Fit"; }
+    public String getLoadTag() { return " (WORST-FIT)"; }
+    public String getWaitingReason() { return "no suitable block available"; }
+
+    public void init(ArrayList<MemoryBlock> blocks) {
+        this.blocks = blocks;
+        free = new FreeBlockHeap(blocks, blocks.size(), new int[blocks.size()]);
+        for (int i = 0; i < blocks.size(); i++) {
+            free.add(i);
+        }
+    }
+
+    public int selectBlock(int memoryNeeded) {
+        int top = free.top();
+        if (top >= 0 && blocks.get(top).blockSize >= memoryNeeded) {
+            return top;
+        }
+        return -1;
+    }
+
+    public void blockUsed(int blockIndex) {
+        free.remove(blockIndex);
+    }
+
+    public void blockFreed(int blockIndex) {
+        free.add(blockIndex);
+    }
+
+    public int largestFree() {
+        int top = free.top();
+        return top >= 0 ? blocks.get(top).blockSize : -1;
+    }
+
+    // The heap is ordered on (size, index), so rebuilding it from the free blocks gives the same choices
+    public void restoreCheckpoint(ArrayList<MemoryBlock> blocks, int[] state) {
+        this.blocks = blocks;
+        free = new FreeBlockHeap(blocks, blocks.size(), new int[blocks.size()]);
+        for (int i = 0; i < blocks.size(); i++) {
+            if (blocks.get(i).isEmpty) {
+                free.add(i);
+            }
+        }
+    }
+}
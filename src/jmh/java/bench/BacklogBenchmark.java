@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-tick cost with a standing queue: every job arrives at tick 0 and the queue drains
+// slowly, so measured ticks walk queues of up to `queued` jobs (us/op = us/tick). Runs
+// restart back to back, see SimulatorBenchmark.newBacklogRun.
+@State(Scope.Thread)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BacklogBenchmark {
+
+    @Param({"first-fit", "best-fit"})
+    public String policy;
+
+    @Param({"10"})
+    public int blocks;
+
+    @Param({"1000", "10000", "100000"})
+    public int queued;
+
+    @Param({"uniform"})
+    public String dist;
+
+    @Param({"false", "true"})
+    public boolean bulk;
+
+    public int[][] blockTable;
+    public int[][] jobTable;
+    public BooleanSupplier run;
+
+    @Setup(Level.Trial)
+    public void newRun() {
+        blockTable = Simulator.makeBlocks(blocks, 42);
+        jobTable = Simulator.makeJobs(queued, dist, 7);
+        run = Simulator.newBacklogRun(policy, blockTable, jobTable, bulk);
+    }
+
+    @Benchmark
+    public boolean tick() {
+        return run.getAsBoolean();
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Headless benchmark for the allocation policies, for every combination of policy, block
+// count, job count and size distribution:
+//   tick     - cost of one tick in quiet mode (ops/s = ticks/s); with -prof gc,
+//              gc.alloc.rate.norm is the bytes allocated per tick
+//   fullRun  - latency of a whole run over the job table
+// The simulator replays the table back to back (see SimulatorBenchmark.newRun), so `tick`
+// averages over whole runs, including the reset between them.
+@State(Scope.Thread)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PolicyBenchmark {
+
+    @Param({"first-fit", "best-fit"})
+    public String policy;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int blocks;
+
+    @Param({"1000", "10000"})
+    public int jobs;
+
+    @Param({"uniform", "small", "large"})
+    public String dist;
+
+    @Param({"false"})
+    public boolean bulk;
+
+    public int[][] blockTable;
+    public int[][] jobTable;
+    public BooleanSupplier run;
+
+    @Setup(Level.Trial)
+    public void newRun() {
+        blockTable = Simulator.makeBlocks(blocks, 42);
+        jobTable = Simulator.makeJobs(jobs, dist, 7);
+        run = Simulator.newRun(policy, blockTable, jobTable, bulk);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean tick() {
+        return run.getAsBoolean();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean fullRun() {
+        while (!run.getAsBoolean()) {
+            // until the run ends
+        }
+        return true;
+    }
+}
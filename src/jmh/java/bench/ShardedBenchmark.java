@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Wall time of a whole run of the ShardedSimulation workload (ms/op = ms per run).
+// shards=0 is the baseline, one engine on one thread; the speedup of a sharded run is the
+// baseline's time over its own. Needs at least shards + 1 cores (the pools and the
+// dispatcher) to show one:
+//   java -jar target/benchmarks.jar ShardedBenchmark -p shards=0,4 -p sync=64
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShardedBenchmark {
+
+    @Param({"first-fit"})
+    public String policy;
+
+    @Param({"100000"})
+    public int blocks;
+
+    @Param({"200000"})
+    public long jobs;
+
+    @Param({"0", "2", "4", "8"})
+    public int shards;
+
+    @Param({"1", "64"})
+    public int sync;
+
+    public int[][] blockTable;
+
+    @Setup(Level.Trial)
+    public void newTable() {
+        blockTable = Simulator.makeBlocks(blocks, 1);
+    }
+
+    @Benchmark
+    public int run() {
+        return Simulator.runSharded(policy, blockTable, jobs, shards, sync);
+    }
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BooleanSupplier;
+
+// Static entry points of SimulatorBenchmark, looked up by name because the simulator
+// classes are in the unnamed package. Only called from @Setup methods, never while measuring,
+// except runSharded, which is a whole run per call.
+final class Simulator {
+
+    private static final MethodHandle MAKE_BLOCKS;
+    private static final MethodHandle MAKE_JOBS;
+    private static final MethodHandle NEW_RUN;
+    private static final MethodHandle NEW_BACKLOG_RUN;
+    private static final MethodHandle RUN_SHARDED;
+
+    static {
+        try {
+            Class<?> workloads = Class.forName("SimulatorBenchmark");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodType runType = MethodType.methodType(BooleanSupplier.class,
+                String.class, int[][].class, int[][].class, boolean.class);
+            MAKE_BLOCKS = lookup.findStatic(workloads, "makeBlocks",
+                MethodType.methodType(int[][].class, int.class, long.class));
+            MAKE_JOBS = lookup.findStatic(workloads, "makeJobs",
+                MethodType.methodType(int[][].class, int.class, String.class, long.class));
+            NEW_RUN = lookup.findStatic(workloads, "newRun", runType);
+            NEW_BACKLOG_RUN = lookup.findStatic(workloads, "newBacklogRun", runType);
+            RUN_SHARDED = lookup.findStatic(workloads, "runSharded",
+                MethodType.methodType(int.class, String.class, int[][].class, long.class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Simulator() {
+    }
+
+    static int[][] makeBlocks(int count, long seed) {
+        try {
+            return (int[][]) MAKE_BLOCKS.invokeExact(count, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int[][] makeJobs(int count, String dist, long seed) {
+        try {
+            return (int[][]) MAKE_JOBS.invokeExact(count, dist, seed);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // One tick per getAsBoolean(), which returns true when a run ends (the next one starts)
+    static BooleanSupplier newRun(String policy, int[][] blocks, int[][] jobs, boolean bulk) {
+        try {
+            return (BooleanSupplier) NEW_RUN.invokeExact(policy, blocks, jobs, bulk);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static BooleanSupplier newBacklogRun(String policy, int[][] blocks, int[][] jobs, boolean bulk) {
+        try {
+            return (BooleanSupplier) NEW_BACKLOG_RUN.invokeExact(policy, blocks, jobs, bulk);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // A whole run, so the call itself is what ShardedBenchmark measures
+    static int runSharded(String policy, int[][] blocks, long jobs, int shards, int syncTicks) {
+        try {
+            return (int) RUN_SHARDED.invokeExact(policy, blocks, jobs, shards, syncTicks);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}